@@ -6,10 +6,12 @@ import com.example.cloudfilestorage.core.service.ResourceService;
 import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -36,13 +38,32 @@ public class DirectoryController {
     @GetMapping
     public ResponseEntity<?> getInfoAboutContentsDirectory(
             @Pattern(regexp = "([a-zA-Z_\\s.-]*/)*([a-zA-Z_\\s-]*(.[a-zA-Z]*)?)")
-            @RequestParam("path") String path
+            @RequestParam("path") String path,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "order", defaultValue = "asc") String order
     ) {
+        if (limit != null || cursor != null) {
+            return ResponseEntity.ok(
+                    resourceService.getDirectoryPageProcessing(path, cursor, limit, "desc".equalsIgnoreCase(order))
+            );
+        }
+
         List<ResourcesResponse> resourcesResponse = resourceService.getInfoAboutContentsDirectory(path);
         return ResponseEntity.
                 ok(resourcesResponse);
     }
 
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamContentsDirectory(
+            @Pattern(regexp = "([a-zA-Z_\\s.-]*/)*([a-zA-Z_\\s-]*(.[a-zA-Z]*)?)")
+            @RequestParam("path") String path
+    ) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(resourceService.streamDirectoryContentsProcessing(path));
+    }
+
     @DeleteMapping
     public ResponseEntity<?> deleteResource(
             @Pattern(regexp = "([a-zA-Z_\\s.-]*/)*([a-zA-Z_\\s-]*(.[a-zA-Z]*)?)")
@@ -55,4 +76,12 @@ public class DirectoryController {
                 .build();
     }
 
+    @PostMapping("/restore")
+    public ResponseEntity<?> restoreResource(
+            @Pattern(regexp = "([a-zA-Z_\\s.-]*/)*([a-zA-Z_\\s-]*(.[a-zA-Z]*)?)")
+            @RequestParam("path") String path
+    ) {
+        return ResponseEntity.ok(resourceService.restoreResourceProcessing(path));
+    }
+
 }
@@ -1,21 +1,31 @@
 package com.example.cloudfilestorage.api.controller;
 
 import com.example.cloudfilestorage.api.dto.ResourcesResponse;
+import com.example.cloudfilestorage.api.dto.UploadReportResponse;
+import com.example.cloudfilestorage.core.model.ObjectStat;
 import com.example.cloudfilestorage.core.model.User;
 import com.example.cloudfilestorage.core.service.ResourceService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.Pattern;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Optional;
 
 import static com.example.cloudfilestorage.core.utilities.PathUtilsService.getResourceName;
 
@@ -24,6 +34,11 @@ import static com.example.cloudfilestorage.core.utilities.PathUtilsService.getRe
 @Validated
 public class ResourceController {
 
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final ResourceService resourceService;
 
     public ResourceController(ResourceService resourceService) {
@@ -42,7 +57,30 @@ public class ResourceController {
             @RequestParam("path") String path,
             @RequestParam("file") MultipartFile[] file
     ) {
-        List<ResourcesResponse> resourcesResponse = resourceService.fileUploadProcessing(path, file);
+        UploadReportResponse uploadReport = resourceService.fileUploadProcessing(path, file);
+
+        if (!uploadReport.getFailed().isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.MULTI_STATUS)
+                    .body(uploadReport);
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(uploadReport.getUploaded());
+    }
+
+    @PutMapping
+    public ResponseEntity<?> uploadFileStream(
+            @Pattern(regexp = "([a-zA-Z_\\s.-]*/)*([a-zA-Z_\\s-]*(.[a-zA-Z]*)?)")
+            @RequestParam("path") String path,
+            @Pattern(regexp = "[a-zA-Z_\\s-]+(\\.[a-zA-Z]+)?")
+            @RequestParam("name") String name,
+            HttpServletRequest request
+    ) throws IOException {
+        List<ResourcesResponse> resourcesResponse = resourceService.streamUploadProcessing(
+                path, name, request.getInputStream(), request.getContentType()
+        );
 
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -50,22 +88,63 @@ public class ResourceController {
     }
 
     @GetMapping("/download/{path}")
-    public ResponseEntity<?> downloadResource(
-            @Pattern(regexp = "([a-zA-Z_\\s.-]+/)*")
-            @PathVariable String path
+    public ResponseEntity<StreamingResponseBody> downloadResource(
+            @Pattern(regexp = "([a-zA-Z_\\s.-]+/)*([a-zA-Z_\\s-]+\\.[a-zA-Z]+)?")
+            @PathVariable String path,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            WebRequest webRequest,
+            HttpServletRequest request
     ) {
         if (path.contains(".")) {
-            InputStream fileStream = resourceService.downloadFileProcessing(path);
+            ObjectStat stat = resourceService.getFileStatProcessing(path);
+            String etag = "\"" + stat.getEtag() + "\"";
+
+            if (webRequest.checkNotModified(etag, stat.getLastModified())) {
+                return null;
+            }
 
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + getResourceName(path) + "\"");
             headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            headers.add(HttpHeaders.ACCEPT_RANGES, "bytes");
 
-            return ResponseEntity.ok()
+            HttpRange httpRange = getRequestedRange(range, ifRange, etag, stat.getLastModified());
+            if (httpRange == null) {
+                headers.setContentLength(stat.getSize());
+
+                if (trySendfile(request, path, 0, stat.getSize())) {
+                    return ResponseEntity.ok().headers(headers).build();
+                }
+
+                return ResponseEntity.ok()
+                        .headers(headers)
+                        .body(resourceService.downloadFileProcessing(path));
+            }
+
+            long start;
+            long end;
+            try {
+                start = httpRange.getRangeStart(stat.getSize());
+                end = httpRange.getRangeEnd(stat.getSize());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + stat.getSize())
+                        .build();
+            }
+
+            headers.add(HttpHeaders.CONTENT_RANGE, String.format("bytes %d-%d/%d", start, end, stat.getSize()));
+            headers.setContentLength(end - start + 1);
+
+            if (trySendfile(request, path, start, end - start + 1)) {
+                return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).build();
+            }
+
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
                     .headers(headers)
-                    .body(new InputStreamResource(fileStream));
+                    .body(resourceService.downloadFileRangeProcessing(path, start, end - start + 1));
         } else {
-            InputStream zipStream = resourceService.downloadFolderAsZipProcessing(path);
+            StreamingResponseBody zipStream = resourceService.downloadFolderAsZipProcessing(path);
 
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + getResourceName(path) + ".zip\"");
@@ -73,7 +152,7 @@ public class ResourceController {
 
             return ResponseEntity.ok()
                     .headers(headers)
-                    .body(new InputStreamResource(zipStream));
+                    .body(zipStream);
         }
     }
 
@@ -85,4 +164,51 @@ public class ResourceController {
     ) {
         return ResponseEntity.ok(resourceService.moveAndRenameResourceProcessing(from, to));
     }
+
+    private boolean trySendfile(HttpServletRequest request, String path, long start, long length) {
+        if (length == 0 || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            return false;
+        }
+
+        Optional<Path> localFile = resourceService.getLocalFileProcessing(path, length);
+        if (localFile.isEmpty()) {
+            return false;
+        }
+
+        request.setAttribute(SENDFILE_FILENAME, localFile.get().toString());
+        request.setAttribute(SENDFILE_START, start);
+        request.setAttribute(SENDFILE_END, start + length);
+        return true;
+    }
+
+    private HttpRange getRequestedRange(String range, String ifRange, String etag, long lastModified) {
+        if (range == null || !isRangeValidator(ifRange, etag, lastModified)) {
+            return null;
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean isRangeValidator(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+
+        try {
+            long ifRangeDate = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant()
+                    .toEpochMilli();
+            return lastModified / 1000 <= ifRangeDate / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
 }
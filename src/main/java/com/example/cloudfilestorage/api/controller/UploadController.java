@@ -0,0 +1,74 @@
+package com.example.cloudfilestorage.api.controller;
+
+import com.example.cloudfilestorage.api.dto.ResourcesResponse;
+import com.example.cloudfilestorage.api.dto.UploadSessionResponse;
+import com.example.cloudfilestorage.core.model.UploadedPart;
+import com.example.cloudfilestorage.core.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/upload")
+@Validated
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    public ResponseEntity<?> initiateUpload(
+            @Pattern(regexp = "([a-zA-Z_\\s.-]*/)*([a-zA-Z_\\s-]*(.[a-zA-Z]*)?)")
+            @RequestParam("path") String path,
+            @Pattern(regexp = "[a-zA-Z_\\s-]+(\\.[a-zA-Z]+)?")
+            @RequestParam("name") String name,
+            @RequestParam(value = "contentType", required = false) String contentType
+    ) {
+        UploadSessionResponse uploadSessionResponse = uploadSessionService.initiateSession(path, name, contentType);
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(uploadSessionResponse);
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<?> getUploadInfo(@PathVariable String sessionId) {
+        return ResponseEntity.ok(uploadSessionService.getSessionInfo(sessionId));
+    }
+
+    @PutMapping("/{sessionId}/parts/{partNumber}")
+    public ResponseEntity<?> uploadPart(
+            @PathVariable String sessionId,
+            @PathVariable int partNumber,
+            HttpServletRequest request
+    ) throws IOException {
+        UploadedPart uploadedPart = uploadSessionService.uploadPart(sessionId, partNumber, request.getInputStream());
+
+        return ResponseEntity.ok(uploadedPart);
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String sessionId) {
+        List<ResourcesResponse> resourcesResponse = uploadSessionService.completeSession(sessionId);
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(resourcesResponse);
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<?> abortUpload(@PathVariable String sessionId) {
+        uploadSessionService.abortSession(sessionId);
+
+        return ResponseEntity
+                .status(HttpStatus.NO_CONTENT)
+                .build();
+    }
+}
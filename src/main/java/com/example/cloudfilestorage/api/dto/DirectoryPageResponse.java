@@ -0,0 +1,15 @@
+package com.example.cloudfilestorage.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+public class DirectoryPageResponse {
+    private List<ResourcesResponse> items;
+    private String nextCursor;
+}
@@ -18,5 +18,6 @@ public class ResourcesResponse {
     private String path;
     private String name;
     private long size;
+    private long itemCount;
     private ResourcesType type;
 }
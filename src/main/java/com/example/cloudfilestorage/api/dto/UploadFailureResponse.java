@@ -0,0 +1,11 @@
+package com.example.cloudfilestorage.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UploadFailureResponse {
+    private String name;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package com.example.cloudfilestorage.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private String sessionId;
+    private String path;
+    private long partSize;
+    private List<Integer> uploadedParts;
+}
@@ -0,0 +1,40 @@
+package com.example.cloudfilestorage.api.mapper;
+
+import com.example.cloudfilestorage.api.dto.ResourcesResponse;
+import com.example.cloudfilestorage.core.model.StoredObject;
+import com.example.cloudfilestorage.core.utilities.PathUtilsService;
+import com.example.cloudfilestorage.core.utilities.ResourcesType;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public abstract class StoredObjectMapper {
+
+    @Mapping(target = "name", expression = "java(this.getResourceName(storedObject))")
+    @Mapping(target = "path", expression = "java(storedObject.getKey())")
+    @Mapping(target = "size", expression = "java(this.getSize(storedObject))")
+    @Mapping(target = "type", expression = "java(this.getResourceType(storedObject))")
+    @Mapping(target = "itemCount", ignore = true)
+    public abstract ResourcesResponse toDTO(StoredObject storedObject);
+
+    protected String getResourceName(StoredObject storedObject) {
+        return PathUtilsService.getResourceName(storedObject.getKey());
+    }
+
+    protected ResourcesType getResourceType(StoredObject storedObject) {
+        if (storedObject.isDirectory()) {
+            return ResourcesType.DIRECTORY;
+        } else {
+            return ResourcesType.FILE;
+        }
+    }
+
+    protected long getSize(StoredObject storedObject) {
+        if (getResourceType(storedObject).equals(ResourcesType.DIRECTORY)) {
+            return 0;
+        }
+        else {
+            return storedObject.getSize();
+        }
+    }
+}
@@ -1,17 +1,108 @@
 package com.example.cloudfilestorage.config;
 
+import com.example.cloudfilestorage.core.utilities.MultipartMinioClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class MinioConfig {
 
+    @Value("${minio.endpoint:http://localhost:9000}")
+    private String endpoint;
+
+    @Value("${minio.accessKey:minioadmin}")
+    private String accessKey;
+
+    @Value("${minio.secretKey:minioadmin}")
+    private String secretKey;
+
     @Bean
-    public MinioClient minioClient() {
+    public OkHttpClient minioHttpClient(
+            @Value("${minio.http.max-idle-connections:32}") int maxIdleConnections,
+            @Value("${minio.http.keep-alive:5m}") Duration keepAlive,
+            @Value("${minio.http.max-requests:128}") int maxRequests,
+            @Value("${minio.http.max-requests-per-host:64}") int maxRequestsPerHost,
+            @Value("${minio.http.connect-timeout:10s}") Duration connectTimeout,
+            @Value("${minio.http.read-timeout:5m}") Duration readTimeout,
+            @Value("${minio.http.write-timeout:5m}") Duration writeTimeout,
+            @Value("${minio.http.http2-enabled:false}") boolean http2Enabled
+    ) {
+        // OkHttp negotiates HTTP/2 only through TLS ALPN, so over http:// the flag would silently do nothing
+        if (http2Enabled && !endpoint.startsWith("https://")) {
+            throw new IllegalStateException(String.format(
+                    "minio.http.http2-enabled требует HTTPS-эндпоинт MinIO, указан: %s", endpoint
+            ));
+        }
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .writeTimeout(writeTimeout)
+                .protocols(http2Enabled ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .build();
+    }
+
+    @Bean
+    public MinioClient minioClient(OkHttpClient minioHttpClient) {
         return MinioClient.builder()
-                .endpoint("http://localhost:9000")
-                .credentials("minioadmin", "minioadmin")
+                .endpoint(endpoint)
+                .credentials(accessKey, secretKey)
+                .httpClient(minioHttpClient)
                 .build();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public MultipartMinioClient multipartMinioClient(OkHttpClient minioHttpClient) {
+        return new MultipartMinioClient(
+                MinioAsyncClient.builder()
+                        .endpoint(endpoint)
+                        .credentials(accessKey, secretKey)
+                        .httpClient(minioHttpClient)
+                        .build()
+        );
+    }
+
+    @Bean
+    public MeterBinder minioHttpClientMetrics(OkHttpClient minioHttpClient) {
+        return registry -> {
+            List<Tag> tags = List.of(Tag.of("client", "minio"));
+            new OkHttpConnectionPoolMetrics(minioHttpClient.connectionPool(), "minio.http.pool", tags)
+                    .bindTo(registry);
+
+            Dispatcher dispatcher = minioHttpClient.dispatcher();
+            Gauge.builder("minio.http.calls.running", dispatcher, Dispatcher::runningCallsCount)
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("minio.http.calls.queued", dispatcher, Dispatcher::queuedCallsCount)
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("minio.http.calls.max", dispatcher, Dispatcher::getMaxRequests)
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("minio.http.calls.max.per.host", dispatcher, Dispatcher::getMaxRequestsPerHost)
+                    .tags(tags)
+                    .register(registry);
+        };
+    }
+}
@@ -5,7 +5,13 @@ import com.example.cloudfilestorage.core.exception.AuthException.UserNotFoundExc
 import com.example.cloudfilestorage.core.exception.AuthException.ValidationAuthException;
 import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
 import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FolderDoesNotExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.InvalidResourceOperationException;
+import com.example.cloudfilestorage.core.exception.ResourceException.QuotaExceededException;
 import com.example.cloudfilestorage.core.exception.ResourceException.UnauthorizedUserException;
+import com.example.cloudfilestorage.core.exception.ResourceException.UploadSessionNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -49,4 +55,34 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
 
+    @ExceptionHandler(FileDoesNotExistException.class)
+    public ResponseEntity<String> handleFileDoesNotExistException(FileDoesNotExistException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(FolderDoesNotExistException.class)
+    public ResponseEntity<String> handleFolderDoesNotExistException(FolderDoesNotExistException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Ресурс с таким путём уже существует");
+    }
+
+    @ExceptionHandler(InvalidResourceOperationException.class)
+    public ResponseEntity<String> handleInvalidResourceOperationException(InvalidResourceOperationException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(UploadSessionNotFoundException.class)
+    public ResponseEntity<String> handleUploadSessionNotFoundException(UploadSessionNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(QuotaExceededException.class)
+    public ResponseEntity<String> handleQuotaExceededException(QuotaExceededException ex) {
+        return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).body(ex.getMessage());
+    }
+
 }
@@ -0,0 +1,15 @@
+package com.example.cloudfilestorage.core.exception.ResourceException;
+
+public class QuotaExceededException extends RuntimeException {
+    public QuotaExceededException() {
+        super();
+    }
+
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+
+    public QuotaExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
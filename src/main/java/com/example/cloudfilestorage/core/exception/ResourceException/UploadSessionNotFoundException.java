@@ -0,0 +1,15 @@
+package com.example.cloudfilestorage.core.exception.ResourceException;
+
+public class UploadSessionNotFoundException extends RuntimeException {
+    public UploadSessionNotFoundException() {
+        super();
+    }
+
+    public UploadSessionNotFoundException(String message) {
+        super(message);
+    }
+
+    public UploadSessionNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.cloudfilestorage.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ArchiveEntry {
+    private String entryName;
+    private String objectName;
+    private long size;
+}
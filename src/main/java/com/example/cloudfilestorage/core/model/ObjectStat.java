@@ -0,0 +1,16 @@
+package com.example.cloudfilestorage.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ObjectStat {
+    private String objectName;
+    private long size;
+    private String etag;
+    private long lastModified;
+    private String contentType;
+}
@@ -0,0 +1,14 @@
+package com.example.cloudfilestorage.core.model;
+
+import com.example.cloudfilestorage.api.dto.ResourcesResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class PersistedUploads {
+    private List<ResourcesResponse> resources;
+    private List<String> conflicts;
+}
@@ -6,16 +6,21 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.Instant;
 
 @Entity
 @Getter
 @Setter
 @Builder
 @Table(name = "resources")
+@SQLRestriction("deleted_at is null")
 @AllArgsConstructor
 public class Resource {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "resources_id_seq")
+    @SequenceGenerator(name = "resources_id_seq", sequenceName = "resources_id_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "file_name", nullable = false)
@@ -24,6 +29,12 @@ public class Resource {
     @Column(name = "file_path", nullable = false)
     private String filePath;
 
+    @Column(name = "parent_path")
+    private String parentPath;
+
+    @Column(name = "object_key")
+    private String objectKey;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     private User ownerId;
@@ -31,9 +42,15 @@ public class Resource {
     @Column(name = "size")
     private long size;
 
+    @Column(name = "item_count", nullable = false)
+    private long itemCount;
+
     @Column(name = "type", nullable = false)
     private ResourcesType type;
 
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
     public Resource() {
     }
 }
@@ -0,0 +1,12 @@
+package com.example.cloudfilestorage.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StoredObject {
+    private String key;
+    private long size;
+    private boolean directory;
+}
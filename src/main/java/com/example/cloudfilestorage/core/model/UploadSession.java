@@ -0,0 +1,19 @@
+package com.example.cloudfilestorage.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+    private String id;
+    private String uploadId;
+    private String objectName;
+    private String objectKey;
+    private long ownerId;
+    private long createdAt;
+}
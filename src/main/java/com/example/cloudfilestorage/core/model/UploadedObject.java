@@ -0,0 +1,18 @@
+package com.example.cloudfilestorage.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UploadedObject {
+    private String path;
+    private String objectKey;
+    private long size;
+    private String digest;
+    private boolean stored;
+
+    public UploadedObject(String path, String objectKey, long size) {
+        this(path, objectKey, size, null, true);
+    }
+}
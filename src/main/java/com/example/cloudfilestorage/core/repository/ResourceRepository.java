@@ -1,9 +1,14 @@
 package com.example.cloudfilestorage.core.repository;
 
 import com.example.cloudfilestorage.core.model.Resource;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +17,103 @@ public interface ResourceRepository extends JpaRepository<Resource, Long> {
     List<Resource> findAllByFilePathIn(List<String> resourcesNames);
 
     Optional<Resource> findResourceByFilePath(String filePath);
+
+    boolean existsByFilePath(String filePath);
+
+    List<Resource> findByParentPathOrderByFileNameAsc(String parentPath, Limit limit);
+
+    List<Resource> findByParentPathAndFileNameGreaterThanOrderByFileNameAsc(String parentPath, String fileName, Limit limit);
+
+    List<Resource> findByParentPathOrderByFileNameDesc(String parentPath, Limit limit);
+
+    List<Resource> findByParentPathAndFileNameLessThanOrderByFileNameDesc(String parentPath, String fileName, Limit limit);
+
+    @Query("""
+            select r from Resource r
+            where r.filePath like :prefix
+              and r.filePath > :after
+            order by r.filePath
+            """)
+    List<Resource> findPageByFilePathPrefix(@Param("prefix") String prefix, @Param("after") String after, Limit limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update Resource r
+            set r.filePath = concat(:to, substring(r.filePath, :startIndex)),
+                r.fileName = case when r.filePath = :from then :toName else r.fileName end,
+                r.parentPath = case when r.filePath = :from then :toParent
+                                    else concat(:to, substring(r.parentPath, :startIndex)) end
+            where r.filePath like :prefix
+            """)
+    int movePathPrefix(
+            @Param("from") String from,
+            @Param("startIndex") int startIndex,
+            @Param("prefix") String prefix,
+            @Param("to") String to,
+            @Param("toName") String toName,
+            @Param("toParent") String toParent
+    );
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update Resource r
+            set r.filePath = :to,
+                r.fileName = :toName,
+                r.parentPath = :toParent
+            where r.filePath = :from
+            """)
+    int movePath(
+            @Param("from") String from,
+            @Param("to") String to,
+            @Param("toName") String toName,
+            @Param("toParent") String toParent
+    );
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Resource r where r.filePath = :filePath")
+    int deleteByFilePath(@Param("filePath") String filePath);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Resource r where r.filePath like :prefix")
+    int deleteByFilePathPrefix(@Param("prefix") String prefix);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            update resources
+            set deleted_at = :deletedAt
+            where deleted_at is null
+              and file_path like :prefix
+            """, nativeQuery = true)
+    int markDeleted(@Param("prefix") String prefix, @Param("deletedAt") Instant deletedAt);
+
+    @Query(value = """
+            select * from resources
+            where file_path = :filePath
+              and deleted_at >= :deletedAfter
+            order by deleted_at desc
+            limit 1
+            """, nativeQuery = true)
+    Optional<Resource> findLastDeleted(@Param("filePath") String filePath, @Param("deletedAfter") Instant deletedAfter);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            update resources
+            set deleted_at = null
+            where deleted_at = :deletedAt
+              and file_path like :prefix
+            """, nativeQuery = true)
+    int restoreDeleted(@Param("prefix") String prefix, @Param("deletedAt") Instant deletedAt);
+
+    @Query(value = """
+            select * from resources
+            where deleted_at < :deletedBefore
+            order by id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<Resource> lockExpiredDeleted(@Param("deletedBefore") Instant deletedBefore, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from resources where id in (:ids)", nativeQuery = true)
+    int purgeDeleted(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,71 @@
+package com.example.cloudfilestorage.core.service;
+
+import com.example.cloudfilestorage.api.dto.ResourcesResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+@Service
+public class DirectoryCacheService implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "directory-cache:invalidate";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Cache<String, List<ResourcesResponse>> directoryContents;
+    private final boolean redisInvalidation;
+
+    public DirectoryCacheService(
+            RedisTemplate<String, Object> redisTemplate,
+            @Value("${storage.listing-cache.max-entries:100000}") long maxEntries,
+            @Value("${storage.listing-cache.ttl:5m}") Duration ttl,
+            @Value("${storage.listing-cache.redis-invalidation:false}") boolean redisInvalidation
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.redisInvalidation = redisInvalidation;
+        this.directoryContents = Caffeine.newBuilder()
+                .maximumWeight(maxEntries)
+                .weigher((String folderPath, List<ResourcesResponse> contents) -> contents.size() + 1)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public List<ResourcesResponse> getDirectoryContents(
+            String folderPath, Function<String, List<ResourcesResponse>> loader
+    ) {
+        return directoryContents.get(folderPath, path -> List.copyOf(loader.apply(path)));
+    }
+
+    public void invalidate(String absolutePath) {
+        evict(absolutePath);
+
+        if (redisInvalidation) {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, absolutePath);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (redisTemplate.getValueSerializer().deserialize(message.getBody()) instanceof String absolutePath) {
+            evict(absolutePath);
+        }
+    }
+
+    private void evict(String absolutePath) {
+        int slashIndex = -1;
+        while ((slashIndex = absolutePath.indexOf('/', slashIndex + 1)) != -1 && slashIndex < absolutePath.length() - 1) {
+            directoryContents.invalidate(absolutePath.substring(0, slashIndex + 1));
+        }
+
+        if (absolutePath.endsWith("/")) {
+            directoryContents.asMap().keySet().removeIf(folderPath -> folderPath.startsWith(absolutePath));
+        }
+    }
+}
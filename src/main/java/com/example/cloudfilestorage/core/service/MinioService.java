@@ -2,57 +2,79 @@ package com.example.cloudfilestorage.core.service;
 
 
 import com.example.cloudfilestorage.api.dto.ResourcesResponse;
-import com.example.cloudfilestorage.api.mapper.MinioItemMapper;
+import com.example.cloudfilestorage.api.mapper.StoredObjectMapper;
 import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
 import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
 import com.example.cloudfilestorage.core.exception.ResourceException.FolderDoesNotExistException;
-import io.minio.*;
-import io.minio.errors.ErrorResponseException;
-import io.minio.errors.MinioException;
-import io.minio.messages.DeleteError;
-import io.minio.messages.DeleteObject;
-import io.minio.messages.Item;
+import com.example.cloudfilestorage.core.model.ArchiveEntry;
+import com.example.cloudfilestorage.core.model.ObjectStat;
+import com.example.cloudfilestorage.core.model.StoredObject;
+import com.example.cloudfilestorage.core.storage.StorageBackend;
+import com.example.cloudfilestorage.core.storage.StorageMetrics;
+import io.minio.messages.Part;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import static com.example.cloudfilestorage.core.storage.StorageMetrics.*;
+
 @Service
 @RequiredArgsConstructor
 public class MinioService {
 
-    private final MinioClient minioClient;
-    private final MinioItemMapper minioItemMapper;
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final StorageBackend storageBackend;
+    private final StoredObjectMapper storedObjectMapper;
+    private final ThreadPoolTaskExecutor storageTaskExecutor;
+    private final StorageMetrics storageMetrics;
+
+    @Value("${minio.zip.prefetch-concurrency:8}")
+    private int zipPrefetchConcurrency;
+
+    @Value("${minio.zip.max-bytes-in-flight:64MB}")
+    private DataSize zipMaxBytesInFlight;
+
+    @Value("${minio.copy.concurrency:8}")
+    private int copyConcurrency;
+
+    @Value("${minio.delete.concurrency:4}")
+    private int deleteConcurrency;
 
-    @Value("${minio.buckets.user-files-bucket}")
-    private String userFilesBucketName;
 
     public boolean isFileExist(String objectName) {
         try {
-            minioClient.statObject(
-                    StatObjectArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .object(objectName)
-                            .build()
-            );
+            statFile(objectName);
             return true;
-        } catch (ErrorResponseException e) {
+        } catch (FileDoesNotExistException e) {
             return false;
-        } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
-            throw new FailedResourceOperationsException(e.getMessage());
         }
     }
 
@@ -62,161 +84,323 @@ public class MinioService {
         }
 
         try {
-            Iterable<Result<Item>> results = minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .prefix(folderPath)
-                            .maxKeys(1)
-                            .delimiter("/")
-                            .build());
-            return results.iterator().hasNext();
+            return list(folderPath, null, false).hasNext();
         } catch (Exception e) {
             throw new FailedResourceOperationsException(e.getMessage());
         }
     }
 
     public void loadFileInStorage(MultipartFile file, String objectName) throws FailedResourceOperationsException {
-        try {
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .object(objectName)
-                            .stream(file.getInputStream(), file.getSize(), -1)
-                            .build()
-            );
-        } catch (Exception e) {
+        loadFileInStorage(file, objectName, false);
+    }
+
+    public void loadFileInStorage(MultipartFile file, String objectName, boolean ifAbsent)
+            throws FileAlreadyExistException, FailedResourceOperationsException {
+        try (InputStream inputStream = file.getInputStream()) {
+            put(objectName, inputStream, file.getSize(), file.getContentType(), ifAbsent);
+        } catch (IOException e) {
             throw new FailedResourceOperationsException(e.getMessage());
         }
     }
 
+    public long loadStreamInStorage(InputStream inputStream, String objectName, String contentType)
+            throws FailedResourceOperationsException {
+        return loadStreamInStorage(inputStream, objectName, contentType, false);
+    }
+
+    public long loadStreamInStorage(InputStream inputStream, String objectName, String contentType, boolean ifAbsent)
+            throws FileAlreadyExistException, FailedResourceOperationsException {
+        return put(objectName, inputStream, -1, contentType, ifAbsent);
+    }
+
+    private long put(String objectName, InputStream inputStream, long size, String contentType, boolean ifAbsent) {
+        long stored = storageMetrics.record(
+                PUT, () -> storageBackend.put(objectName, inputStream, size, contentType, ifAbsent)
+        );
+        storageMetrics.recordBytes(PUT, stored);
+        return stored;
+    }
+
+    public String initiateMultipartUpload(String objectName, String contentType) throws FailedResourceOperationsException {
+        return storageMetrics.record(
+                INITIATE_MULTIPART, () -> storageBackend.initiateMultipartUpload(objectName, contentType)
+        );
+    }
+
+    public String uploadPart(String objectName, String uploadId, int partNumber, byte[] data)
+            throws FailedResourceOperationsException {
+        String etag = storageMetrics.record(
+                UPLOAD_PART, () -> storageBackend.uploadPart(objectName, uploadId, partNumber, data)
+        );
+        storageMetrics.recordBytes(UPLOAD_PART, data.length);
+        return etag;
+    }
+
+    public void completeMultipartUpload(String objectName, String uploadId, List<Part> parts)
+            throws FailedResourceOperationsException {
+        completeMultipartUpload(objectName, uploadId, parts, false);
+    }
+
+    public void completeMultipartUpload(String objectName, String uploadId, List<Part> parts, boolean ifAbsent)
+            throws FileAlreadyExistException, FailedResourceOperationsException {
+        storageMetrics.run(
+                COMPLETE_MULTIPART, () -> storageBackend.completeMultipartUpload(objectName, uploadId, parts, ifAbsent)
+        );
+    }
+
+    public void abortMultipartUpload(String objectName, String uploadId) {
+        storageMetrics.run(ABORT_MULTIPART, () -> storageBackend.abortMultipartUpload(objectName, uploadId));
+    }
+
     public void createFolderInStorage(String folderName) throws FailedResourceOperationsException {
         if (!folderName.endsWith("/")) {
             folderName += "/";
         }
 
-        try {
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .object(folderName)
-                            .stream(new ByteArrayInputStream(new byte[]{}), 0, -1)
-                            .build());
-        } catch (Exception e) {
-            throw new FailedResourceOperationsException(e.getMessage());
-        }
+        put(folderName, InputStream.nullInputStream(), 0, null, false);
     }
 
     public void deleteFileInStorage(String path) throws FailedResourceOperationsException {
+        Map<String, String> errors = storageMetrics.record(REMOVE, () -> storageBackend.delete(List.of(path)));
+        if (!errors.isEmpty()) {
+            throw new FailedResourceOperationsException(errors.get(path));
+        }
+    }
+
+    public long deleteFolderInStorage(String path) throws FailedResourceOperationsException {
+        Iterator<StoredObject> objects = list(path, null, true);
+
+        return deleteInBatches(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return objects.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return objects.next().getKey();
+            }
+        });
+    }
+
+    public void deleteObjectsInStorage(List<String> objectNames) throws FailedResourceOperationsException {
+        deleteInBatches(objectNames.iterator());
+    }
+
+    public Map<String, String> tryDeleteObjectsInStorage(List<String> objectNames) throws FailedResourceOperationsException {
+        Map<String, String> failedObjects = new ConcurrentHashMap<>();
         try {
-            minioClient.removeObject(
-                    RemoveObjectArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .object(path)
-                            .build()
-            );
-        } catch (Exception e) {
-            throw new FailedResourceOperationsException(e.getMessage());
+            removeInBatches(objectNames.iterator(), failedObjects);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FailedResourceOperationsException(e.toString());
         }
+        return failedObjects;
     }
 
-    public void deleteFolderInStorage(String path) throws FailedResourceOperationsException {
+    private long deleteInBatches(Iterator<String> objectNames) throws FailedResourceOperationsException {
+        Map<String, String> failedObjects = new ConcurrentHashMap<>();
+        String listingError = null;
+        long deletedCount = 0;
 
         try {
-            Iterable<Result<Item>> results = minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .prefix(path)
-                            .recursive(true)
-                            .build()
-            );
+            deletedCount = removeInBatches(objectNames, failedObjects);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            listingError = e.toString();
+        } catch (Exception e) {
+            listingError = String.valueOf(e.getMessage());
+        }
 
-            List<DeleteObject> objectsToDelete = StreamSupport.stream(results.spliterator(), false)
-                    .map(itemResult -> {
-                        try {
-                            return new DeleteObject(itemResult.get().objectName());
-                        } catch (Exception e) {
-                            return null;
-                        }
-                    })
-                    .filter(java.util.Objects::nonNull)
-                    .collect(Collectors.toList());
-
-
-            if (!objectsToDelete.isEmpty()) {
-                Iterable<Result<DeleteError>> errorResults = minioClient.removeObjects(
-                        RemoveObjectsArgs.builder()
-                                .bucket(userFilesBucketName)
-                                .objects(objectsToDelete)
-                                .build()
-                );
-                boolean hasErrors = false;
+        if (failedObjects.isEmpty() && listingError == null) {
+            return deletedCount;
+        }
 
-                StringBuilder errors = new StringBuilder();
+        StringBuilder errors = new StringBuilder();
+        if (listingError != null) {
+            errors.append(String.format("Ошибка при получении списка объектов; %s", listingError));
+        }
+        failedObjects.forEach((objectName, message) -> errors.append(
+                String.format("Ошибка при удалении объекта '%s'; %s", objectName, message)
+        ));
+        throw new FailedResourceOperationsException("Не удалось удалить один или несколько объектов." + errors);
+    }
 
-                for (Result<DeleteError> errorResult : errorResults) {
-                    DeleteError error = errorResult.get();
-                    errors.append(
-                            String.format("Ошибка при удалении объекта '%s'; %s", error.objectName(), error.message())
-                    );
-                    hasErrors = true;
-                }
+    private long removeInBatches(Iterator<String> objectNames, Map<String, String> failedObjects)
+            throws InterruptedException {
+        Semaphore batchesInFlight = new Semaphore(deleteConcurrency);
+        List<CompletableFuture<Void>> deletions = new ArrayList<>();
+        long deletedCount = 0;
 
-                if (hasErrors) {
-                    throw new FailedResourceOperationsException("Не удалось удалить один или несколько объектов." + errors);
+        try {
+            while (objectNames.hasNext()) {
+                List<String> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+                while (batch.size() < DELETE_BATCH_SIZE && objectNames.hasNext()) {
+                    batch.add(objectNames.next());
                 }
+                deletedCount += batch.size();
+
+                batchesInFlight.acquire();
+                deletions.removeIf(CompletableFuture::isDone);
+                deletions.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        removeBatch(batch, failedObjects);
+                    } finally {
+                        batchesInFlight.release();
+                    }
+                }, storageTaskExecutor));
             }
+        } finally {
+            CompletableFuture.allOf(deletions.toArray(CompletableFuture[]::new)).join();
+        }
+        return deletedCount;
+    }
 
+    private void removeBatch(List<String> objectNames, Map<String, String> failedObjects) {
+        try {
+            failedObjects.putAll(storageMetrics.record(REMOVE_OBJECTS, () -> storageBackend.delete(objectNames)));
+            storageMetrics.recordObjects(REMOVE_OBJECTS, objectNames.size());
         } catch (Exception e) {
-            throw new FailedResourceOperationsException(e.getMessage());
+            objectNames.forEach(objectName -> failedObjects.put(objectName, String.valueOf(e.getMessage())));
         }
     }
 
     public InputStream getFile(String path) {
-        try {
-            return minioClient.getObject(
-                    GetObjectArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .object(path)
-                            .build()
-            );
-        } catch (Exception e) {
-            throw new FailedResourceOperationsException(e.getMessage());
+        return storageMetrics.countBytes(GET, storageMetrics.record(GET, () -> storageBackend.get(path)));
+    }
+
+    public InputStream getFile(String path, long offset, long length) {
+        return storageMetrics.countBytes(
+                GET, storageMetrics.record(GET, () -> storageBackend.get(path, offset, length))
+        );
+    }
+
+    public void writeFile(String path, OutputStream outputStream) throws IOException {
+        try (InputStream inputStream = getFile(path)) {
+            inputStream.transferTo(outputStream);
+        }
+    }
+
+    public void writeFile(String path, long offset, long length, OutputStream outputStream) throws IOException {
+        try (InputStream inputStream = getFile(path, offset, length)) {
+            inputStream.transferTo(outputStream);
         }
     }
 
-    public InputStream getFolderAsZip(String folderPath) {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        try (ZipOutputStream zos = new ZipOutputStream(bos)) {
-
-            Iterable<Result<Item>> results = minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .prefix(folderPath)
-                            .recursive(true)
-                            .build());
-
-            for (Result<Item> result : results) {
-                Item item = result.get();
-                String objectName = item.objectName();
-
-                try (InputStream is = minioClient.getObject(
-                        GetObjectArgs.builder()
-                                .bucket(userFilesBucketName)
-                                .object(objectName)
-                                .build())
-                ) {
-                    String relativePath = objectName.substring(folderPath.length());
-                    ZipEntry entry = new ZipEntry(relativePath);
-                    zos.putNextEntry(entry);
-
-                    is.transferTo(zos);
+    public Optional<Path> getLocalFile(String path, long length) throws FailedResourceOperationsException {
+        Optional<Path> localFile = storageBackend.localFile(path);
+        localFile.ifPresent(file -> storageMetrics.recordBytes(GET, length));
+        return localFile;
+    }
+
+    public ObjectStat statFile(String path) throws FileDoesNotExistException, FailedResourceOperationsException {
+        return storageMetrics.record(STAT, () -> storageBackend.stat(path));
+    }
+
+    public void writeFolderAsZip(String folderPath, OutputStream outputStream) throws FailedResourceOperationsException {
+        writeArchive(iterateArchiveEntries(folderPath), outputStream);
+    }
+
+    public Iterator<ArchiveEntry> iterateArchiveEntries(String folderPath) {
+        Iterator<StoredObject> objects = list(folderPath, null, true);
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return objects.hasNext();
+            }
+
+            @Override
+            public ArchiveEntry next() {
+                StoredObject object = objects.next();
+                return new ArchiveEntry(
+                        object.getKey().substring(folderPath.length()),
+                        object.getKey().endsWith("/") ? null : object.getKey(),
+                        object.getSize()
+                );
+            }
+        };
+    }
+
+    public void writeArchive(Iterator<ArchiveEntry> entries, OutputStream outputStream)
+            throws FailedResourceOperationsException {
+        ZipOutputStream zos = new ZipOutputStream(outputStream);
+        Deque<PrefetchedObject> window = new ArrayDeque<>();
+        long maxBytesInFlight = zipMaxBytesInFlight.toBytes();
+        long bytesInFlight = 0;
+
+        try {
+            ArchiveEntry pending = null;
+            while (true) {
+                while (window.size() < zipPrefetchConcurrency && (pending != null || entries.hasNext())) {
+                    if (pending == null) {
+                        pending = entries.next();
+                    }
+
+                    boolean streamDirectly = pending.getObjectName() == null || pending.getSize() > maxBytesInFlight;
+                    if (!streamDirectly && bytesInFlight + pending.getSize() > maxBytesInFlight) {
+                        break;
+                    }
+
+                    window.addLast(prefetchObject(pending, streamDirectly));
+                    if (!streamDirectly) {
+                        bytesInFlight += pending.getSize();
+                    }
+                    pending = null;
+                }
+
+                PrefetchedObject next = window.pollFirst();
+                if (next == null) {
+                    break;
+                }
+
+                writeZipEntry(zos, next);
+                if (next.content() != null) {
+                    bytesInFlight -= next.entry().getSize();
                 }
-                zos.closeEntry();
             }
+            zos.finish();
+        } catch (ExecutionException e) {
+            throw new FailedResourceOperationsException(e.getCause().getMessage());
         } catch (Exception e) {
             throw new FailedResourceOperationsException(e.getMessage());
+        } finally {
+            window.forEach(prefetched -> {
+                if (prefetched.content() != null) {
+                    prefetched.content().cancel(true);
+                }
+            });
         }
-        return new ByteArrayInputStream(bos.toByteArray());
+    }
+
+    private PrefetchedObject prefetchObject(ArchiveEntry entry, boolean streamDirectly) {
+        if (streamDirectly) {
+            return new PrefetchedObject(entry, null);
+        }
+
+        Future<byte[]> content = storageTaskExecutor.submit(() -> {
+            try (InputStream is = getFile(entry.getObjectName())) {
+                return is.readAllBytes();
+            }
+        });
+        return new PrefetchedObject(entry, content);
+    }
+
+    private void writeZipEntry(ZipOutputStream zos, PrefetchedObject object) throws Exception {
+        if (object.entry().getEntryName().isEmpty()) {
+            return;
+        }
+
+        zos.putNextEntry(new ZipEntry(object.entry().getEntryName()));
+        if (object.content() != null) {
+            zos.write(object.content().get());
+        } else if (object.entry().getObjectName() != null) {
+            try (InputStream is = getFile(object.entry().getObjectName())) {
+                is.transferTo(zos);
+            }
+        }
+        zos.closeEntry();
+        zos.flush();
     }
 
     public List<ResourcesResponse> getInfoAboutContentsDirectory(String path) throws FailedResourceOperationsException {
@@ -225,91 +409,134 @@ public class MinioService {
         }
         List<ResourcesResponse> responses = new ArrayList<>();
         try {
-            Iterable<Result<Item>> results = minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .prefix(path)
-                            .delimiter("/")
-                            .recursive(false)
-                            .build());
-            for (Result<Item> result : results) {
-                responses.add(minioItemMapper.toDTO(result.get()));
-            }
+            list(path, null, false)
+                    .forEachRemaining(object -> responses.add(storedObjectMapper.toDTO(object)));
             return responses;
         } catch (Exception e) {
             throw new FailedResourceOperationsException(e.getMessage());
         }
     }
 
+    public Iterator<ResourcesResponse> iterateDirectoryContents(String path, String startAfter) {
+        Iterator<StoredObject> objects = list(path, startAfter, false);
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return objects.hasNext();
+            }
+
+            @Override
+            public ResourcesResponse next() {
+                return storedObjectMapper.toDTO(objects.next());
+            }
+        };
+    }
+
     public void copyFile(String from, String to) throws FailedResourceOperationsException {
-        try {
-            minioClient.copyObject(
-                    CopyObjectArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .source(
-                                    CopySource.builder()
-                                            .bucket(userFilesBucketName)
-                                            .object(from)
-                                            .build()
-                            )
-                            .object(to)
-                            .build()
-            );
-        } catch (Exception e) {
-            throw new FailedResourceOperationsException(e.getMessage());
+        copy(from, to);
+    }
+
+    private void copy(String from, String to) throws FailedResourceOperationsException {
+        storageMetrics.run(COPY, () -> storageBackend.copy(from, to));
+        storageMetrics.recordObjects(COPY, 1);
+    }
+
+    private Iterator<StoredObject> list(String prefix, String startAfter, boolean recursive) {
+        return storageMetrics.recordList(() -> storageBackend.list(prefix, startAfter, recursive));
+    }
+
+    public long copyFolder(String from, String to) throws FailedResourceOperationsException {
+        return copyFolder(from, to, copied -> { });
+    }
+
+    public long copyFolder(String from, String to, LongConsumer progressListener)
+            throws FailedResourceOperationsException {
+        return copyFolder(from, to, progressListener, new ConcurrentLinkedQueue<>());
+    }
+
+    public long moveFolder(String from, String to) throws FolderDoesNotExistException, FailedResourceOperationsException {
+        Queue<String> sourceObjects = new ConcurrentLinkedQueue<>();
+
+        long moved = copyFolder(from, to, copied -> { }, sourceObjects);
+        if (moved == 0) {
+            throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", from));
         }
+
+        deleteObjectsInStorage(new ArrayList<>(sourceObjects));
+        return moved;
     }
 
-    public void copyFolder(String from, String to) throws FailedResourceOperationsException {
+    private long copyFolder(String from, String to, LongConsumer progressListener, Queue<String> sourceObjects)
+            throws FailedResourceOperationsException {
         if (!from.endsWith("/")) {
             from += "/";
         }
+        String sourcePrefix = from;
+
+        Semaphore copiesInFlight = new Semaphore(copyConcurrency);
+        Queue<String> copiedObjects = new ConcurrentLinkedQueue<>();
+        Map<String, String> failedObjects = new ConcurrentHashMap<>();
+        AtomicLong copiedCount = new AtomicLong();
+        List<CompletableFuture<Void>> copies = new ArrayList<>();
 
         try {
-            Iterable<Result<Item>> results = minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .prefix(from)
-                            .recursive(true)
-                            .build()
-            );
-            for (Result<Item> result : results) {
-                Item item = result.get();
-                String objectName = item.objectName();
-
-                String destObjectName = to + objectName.substring(from.length());
-
-                minioClient.copyObject(
-                        CopyObjectArgs.builder()
-                                .bucket(userFilesBucketName)
-                                .source(
-                                        CopySource.builder()
-                                                .bucket(userFilesBucketName)
-                                                .object(objectName)
-                                                .build()
-                                )
-                                .object(destObjectName)
-                                .build()
-                );
+            Iterator<StoredObject> objects = list(sourcePrefix, null, true);
+            while (objects.hasNext()) {
+                String objectName = objects.next().getKey();
+                String destObjectName = to + objectName.substring(sourcePrefix.length());
+
+                copiesInFlight.acquire();
+                if (!failedObjects.isEmpty()) {
+                    copiesInFlight.release();
+                    break;
+                }
+
+                copies.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        copy(objectName, destObjectName);
+                        copiedObjects.add(destObjectName);
+                        sourceObjects.add(objectName);
+                        progressListener.accept(copiedCount.incrementAndGet());
+                    } catch (Exception e) {
+                        failedObjects.put(objectName, String.valueOf(e.getMessage()));
+                    } finally {
+                        copiesInFlight.release();
+                    }
+                }, storageTaskExecutor));
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failedObjects.put(sourcePrefix, e.toString());
         } catch (Exception e) {
-            throw new FailedResourceOperationsException(e.getMessage());
+            failedObjects.put(sourcePrefix, String.valueOf(e.getMessage()));
         }
+
+        CompletableFuture.allOf(copies.toArray(CompletableFuture[]::new)).join();
+
+        if (!failedObjects.isEmpty()) {
+            deleteObjectsInStorage(new ArrayList<>(copiedObjects));
+
+            StringBuilder errors = new StringBuilder();
+            failedObjects.forEach((objectName, message) -> errors.append(
+                    String.format("Ошибка при копировании объекта '%s'; %s", objectName, message)
+            ));
+            throw new FailedResourceOperationsException(
+                    "Не удалось скопировать папку, скопированные объекты удалены." + errors
+            );
+        }
+
+        return copiedCount.get();
     }
 
     public long getFileSize(String path) throws FailedResourceOperationsException {
         try {
-            StatObjectResponse stat = minioClient.statObject(
-                    StatObjectArgs.builder()
-                            .bucket(userFilesBucketName)
-                            .object(path)
-                            .build()
-            );
-            return stat.size();
+            return statFile(path).getSize();
         } catch (Exception e) {
             throw new FailedResourceOperationsException(e.getMessage());
         }
     }
 
-
+    private record PrefetchedObject(ArchiveEntry entry, Future<byte[]> content) {
+    }
 }
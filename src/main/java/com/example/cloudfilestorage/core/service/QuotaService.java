@@ -0,0 +1,135 @@
+package com.example.cloudfilestorage.core.service;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.QuotaExceededException;
+import com.example.cloudfilestorage.core.model.User;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class QuotaService {
+
+    private final ResourcePersistenceService resourcePersistenceService;
+
+    @Value("${storage.quota.limit:10GB}")
+    private DataSize quotaLimit;
+
+    @Value("${storage.quota.reconcile-batch-size:1000}")
+    private int reconcileBatchSize;
+
+    @Value("${storage.quota.reservation-chunk:8MB}")
+    private DataSize reservationChunk;
+
+    public void checkQuota(User user, long incomingBytes) throws QuotaExceededException {
+        long usedBytes = resourcePersistenceService.getUsedBytes(user.getId());
+
+        if (usedBytes + incomingBytes > quotaLimit.toBytes()) {
+            throw quotaExceeded(usedBytes, incomingBytes);
+        }
+    }
+
+    public long reserve(User user, long bytes) throws QuotaExceededException {
+        if (bytes <= 0) {
+            return 0;
+        }
+
+        if (!resourcePersistenceService.reserveUsedBytes(user.getId(), bytes, quotaLimit.toBytes())) {
+            throw quotaExceeded(resourcePersistenceService.getUsedBytes(user.getId()), bytes);
+        }
+        return bytes;
+    }
+
+    public void release(User user, long bytes) {
+        if (bytes > 0) {
+            resourcePersistenceService.releaseUsedBytes(user.getId(), bytes);
+        }
+    }
+
+    public ReservingInputStream reserveWhileReading(User user, InputStream inputStream) {
+        return new ReservingInputStream(user, inputStream);
+    }
+
+    private QuotaExceededException quotaExceeded(long usedBytes, long incomingBytes) {
+        return new QuotaExceededException(String.format(
+                "Превышена квота хранилища: занято %d из %d байт, требуется ещё %d",
+                usedBytes, quotaLimit.toBytes(), incomingBytes
+        ));
+    }
+
+    @Scheduled(
+            initialDelayString = "${storage.quota.reconcile-interval:1h}",
+            fixedDelayString = "${storage.quota.reconcile-interval:1h}"
+    )
+    public void reconcileUsage() {
+        long afterUserId = 0;
+        List<Long> userIds;
+        do {
+            userIds = resourcePersistenceService.reconcileUsedBytes(afterUserId, reconcileBatchSize);
+            if (!userIds.isEmpty()) {
+                afterUserId = userIds.get(userIds.size() - 1);
+            }
+        } while (userIds.size() == reconcileBatchSize);
+    }
+
+    public class ReservingInputStream extends FilterInputStream {
+
+        private final User user;
+        private long readBytes;
+        @Getter
+        private long reservedBytes;
+        @Getter
+        private QuotaExceededException quotaExceeded;
+
+        private ReservingInputStream(User user, InputStream inputStream) {
+            super(inputStream);
+            this.user = user;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) {
+                reserveUpTo(readBytes + 1);
+                readBytes++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                reserveUpTo(readBytes + read);
+                readBytes += read;
+            }
+            return read;
+        }
+
+        private void reserveUpTo(long bytes) throws QuotaExceededException {
+            if (bytes <= reservedBytes) {
+                return;
+            }
+
+            long missing = bytes - reservedBytes;
+            long chunk = Math.max(missing, reservationChunk.toBytes());
+            if (resourcePersistenceService.reserveUsedBytes(user.getId(), chunk, quotaLimit.toBytes())) {
+                reservedBytes += chunk;
+            } else if (chunk > missing
+                    && resourcePersistenceService.reserveUsedBytes(user.getId(), missing, quotaLimit.toBytes())) {
+                reservedBytes += missing;
+            } else {
+                quotaExceeded = quotaExceeded(resourcePersistenceService.getUsedBytes(user.getId()), missing);
+                throw quotaExceeded;
+            }
+        }
+    }
+}
@@ -3,24 +3,100 @@ package com.example.cloudfilestorage.core.service;
 import com.example.cloudfilestorage.api.dto.ResourcesResponse;
 import com.example.cloudfilestorage.api.mapper.ResourceMapper;
 import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
+import com.example.cloudfilestorage.core.model.ArchiveEntry;
+import com.example.cloudfilestorage.core.model.PersistedUploads;
 import com.example.cloudfilestorage.core.model.Resource;
+import com.example.cloudfilestorage.core.model.UploadedObject;
 import com.example.cloudfilestorage.core.model.User;
 import com.example.cloudfilestorage.core.repository.ResourceRepository;
+import com.example.cloudfilestorage.core.utilities.PathUtilsService;
 import com.example.cloudfilestorage.core.utilities.ResourcesType;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import static com.example.cloudfilestorage.core.utilities.PathUtilsService.getParentPath;
+import static com.example.cloudfilestorage.core.utilities.PathUtilsService.getResourceName;
+
 @Service
 @AllArgsConstructor
 public class ResourcePersistenceService {
 
+    private static final String INSERT_FOLDERS_IF_ABSENT = """
+            insert into resources (id, owner_id, type, size, file_name, file_path, parent_path)
+            select nextval('resources_id_seq'), ?, ?, 0, folder.file_name, folder.file_path, folder.parent_path
+            from unnest(?::varchar[], ?::varchar[], ?::varchar[]) as folder(file_name, file_path, parent_path)
+            on conflict do nothing
+            returning file_path
+            """;
+    private static final String UPDATE_FOLDER_TOTALS = """
+            update resources
+            set size = size + ?, item_count = item_count + ?
+            where file_path = ?
+              and deleted_at is null
+            """;
+    private static final String FIND_BLOB = "select object_key from blobs where digest = ?";
+    private static final String ACQUIRE_BLOB = """
+            update blobs
+            set ref_count = ref_count + 1
+            where digest = ?
+            returning object_key
+            """;
+    private static final String REGISTER_BLOB = """
+            insert into blobs (digest, object_key, size, ref_count)
+            values (?, ?, ?, 1)
+            on conflict (digest) do update set ref_count = blobs.ref_count + 1
+            returning object_key
+            """;
+    private static final String RELEASE_BLOBS = """
+            update blobs
+            set ref_count = blobs.ref_count - released.ref_count
+            from unnest(?::varchar[], ?::bigint[]) as released(object_key, ref_count)
+            where blobs.object_key = released.object_key
+            returning blobs.object_key, blobs.ref_count
+            """;
+    private static final String DELETE_RELEASED_BLOBS = "delete from blobs where object_key = any(?) and ref_count <= 0";
+    private static final String ENQUEUE_OBJECT_DELETIONS = """
+            insert into pending_object_deletions (object_key)
+            select unnest(?::varchar[])
+            on conflict do nothing
+            """;
+    private static final String SELECT_OBJECT_DELETIONS = """
+            select object_key from pending_object_deletions
+            order by created_at, object_key
+            limit ? offset ?
+            """;
+    private static final String DELETE_OBJECT_DELETIONS = "delete from pending_object_deletions where object_key = any(?)";
+    private static final String UPDATE_USED_BYTES = "update users set used_bytes = used_bytes + ? where id = ?";
+    private static final String RESERVE_USED_BYTES = """
+            update users
+            set used_bytes = used_bytes + ?
+            where id = ?
+              and used_bytes + ? <= ?
+            """;
+    private static final String SELECT_USED_BYTES = "select used_bytes from users where id = ?";
+    private static final String LOCK_USER = "select id from users where id = ? for update";
+    private static final String LOCK_USERS = "select id from users where id > ? order by id limit ? for update";
+    private static final String RECONCILE_USED_BYTES = """
+            update users u
+            set used_bytes = coalesce((select sum(r.size) from resources r where r.owner_id = u.id and r.type = 0), 0)
+            where u.id between ? and ?
+            """;
+    private static final int ARCHIVE_PAGE_SIZE = 1000;
+
     private final ResourceRepository resourceRepository;
     private final ResourceMapper resourceMapper;
+    private final JdbcTemplate jdbcTemplate;
 
     @Transactional
     public ResourcesResponse updateFolderInfo(String resourcesName, String path, User user) {
@@ -36,42 +112,177 @@ public class ResourcePersistenceService {
         Resource newResource = createNewResource(resourcesName, path, user, size);
 
         resourceRepository.save(newResource);
+        updateAncestorTotals(path, getTotals(newResource));
+        updateUsedBytes(user.getId(), newResource.getSize());
 
         return resourceMapper.toDTO(newResource);
     }
     @Transactional
-    public List<ResourcesResponse> updateResourcesInfo(String objectName, MultipartFile file, User user) {
-        List<String> resources = new ArrayList<>(Arrays.asList(objectName.split("/")));
-        Map<String, Resource> existResources = resourceRepository.findAllByFilePathIn(resources)
-                .stream()
-                .collect(Collectors.toMap(Resource::getFilePath, resource -> resource));
+    public List<ResourcesResponse> updateResourcesInfo(String objectName, long size, User user) {
+        return updateResourcesInfo(List.of(new UploadedObject(objectName, objectName, size)), user);
+    }
 
-        StringBuilder absolutePaths = new StringBuilder(resources.get(0));
+    @Transactional
+    public List<ResourcesResponse> updateResourcesInfo(List<UploadedObject> uploadedObjects, User user) {
+        return updateResourcesInfo(uploadedObjects, user, objectKeys -> {});
+    }
 
-        List<ResourcesResponse> uploadInfo = new ArrayList<>();
+    @Transactional
+    public List<ResourcesResponse> updateResourcesInfo(
+            List<UploadedObject> uploadedObjects, User user, Consumer<List<String>> redundantObjectsRemover
+    ) {
+        return updateResourcesInfo(uploadedObjects, user, redundantObjectsRemover, 0).getResources();
+    }
 
-        for (int i = 1; i < resources.size(); i++) {
-            String resource = resources.get(i);
+    @Transactional
+    public PersistedUploads updateResourcesInfo(
+            List<UploadedObject> uploadedObjects, User user, Consumer<List<String>> redundantObjectsRemover,
+            long reservedBytes
+    ) {
+        jdbcTemplate.queryForList(LOCK_USER, Long.class, user.getId());
 
-            absolutePaths.append("/").append(resource);
-            String absolutePath = absolutePaths.toString();
+        Set<String> folderPaths = new LinkedHashSet<>();
+        Map<String, UploadedObject> files = new LinkedHashMap<>();
+        for (UploadedObject uploadedObject : uploadedObjects) {
+            folderPaths.addAll(getAncestorFolders(uploadedObject.getPath()));
+            files.put(uploadedObject.getPath(), uploadedObject);
+        }
 
-            if (!existResources.containsKey(absolutePath)) {
-                Resource newResource = createNewResource(
-                        resource,
-                        absolutePath,
-                        user,
-                        file.getSize()
-                );
-                existResources.put(absolutePath, newResource);
+        List<ResourcesResponse> newResources = new ArrayList<>(insertFoldersIfAbsent(folderPaths, user));
+
+        Set<String> existFiles = resourceRepository.findAllByFilePathIn(new ArrayList<>(files.keySet()))
+                .stream()
+                .map(Resource::getFilePath)
+                .collect(Collectors.toSet());
+
+        List<Resource> newFiles = new ArrayList<>();
+        List<String> redundantObjects = new ArrayList<>();
+        List<String> conflicts = new ArrayList<>();
+        files.forEach((absolutePath, uploadedObject) -> {
+            if (existFiles.contains(absolutePath)) {
+                conflicts.add(absolutePath);
+                if (uploadedObject.isStored() && !absolutePath.equals(uploadedObject.getObjectKey())) {
+                    redundantObjects.add(uploadedObject.getObjectKey());
+                }
+                return;
+            }
 
-                uploadInfo.add(resourceMapper.toDTO(newResource));
+            Resource resource = createNewResource(
+                    getResourceName(absolutePath), absolutePath, user, uploadedObject.getSize()
+            );
+            String objectKey = uploadedObject.getDigest() == null
+                    ? uploadedObject.getObjectKey()
+                    : acquireBlob(uploadedObject);
+            if (uploadedObject.isStored() && !objectKey.equals(uploadedObject.getObjectKey())) {
+                redundantObjects.add(uploadedObject.getObjectKey());
             }
+            if (!absolutePath.equals(objectKey)) {
+                resource.setObjectKey(objectKey);
+            }
+            newFiles.add(resource);
+        });
+
+        resourceRepository.saveAll(newFiles);
+
+        Map<String, FolderTotals> folderTotals = new HashMap<>();
+        newFiles.forEach(file -> addToAncestors(folderTotals, file.getFilePath(), getTotals(file)));
+        applyFolderTotals(folderTotals);
+        updateUsedBytes(user.getId(), newFiles.stream().mapToLong(Resource::getSize).sum() - reservedBytes);
+
+        if (!redundantObjects.isEmpty()) {
+            redundantObjectsRemover.accept(redundantObjects);
+        }
+
+        newFiles.stream()
+                .map(resourceMapper::toDTO)
+                .forEach(newResources::add);
+        return new PersistedUploads(newResources, conflicts);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<String> findBlobObjectKey(String digest) {
+        return jdbcTemplate.queryForList(FIND_BLOB, String.class, digest).stream().findFirst();
+    }
+
+    private String acquireBlob(UploadedObject uploadedObject) {
+        if (uploadedObject.isStored()) {
+            return jdbcTemplate.queryForObject(
+                    REGISTER_BLOB, String.class,
+                    uploadedObject.getDigest(), uploadedObject.getObjectKey(), uploadedObject.getSize()
+            );
         }
 
-        resourceRepository.saveAll(existResources.values());
+        return jdbcTemplate.queryForList(ACQUIRE_BLOB, String.class, uploadedObject.getDigest())
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new FailedResourceOperationsException(
+                        String.format("Содержимое файла %s было удалено во время загрузки, повторите загрузку",
+                                getResourceName(uploadedObject.getPath()))
+                ));
+    }
+
+    private List<String> releaseObjects(List<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return objectKeys;
+        }
 
-        return uploadInfo;
+        Map<String, Long> references = objectKeys.stream()
+                .collect(Collectors.groupingBy(objectKey -> objectKey, Collectors.counting()));
+        String[] keys = references.keySet().toArray(String[]::new);
+        Long[] counts = Arrays.stream(keys).map(references::get).toArray(Long[]::new);
+
+        Map<String, Long> remainingReferences = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(RELEASE_BLOBS);
+            statement.setArray(1, connection.createArrayOf("varchar", keys));
+            statement.setArray(2, connection.createArrayOf("bigint", counts));
+            return statement;
+        }, (resultSet, rowNum) -> Map.entry(resultSet.getString(1), resultSet.getLong(2)))
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        String[] releasedBlobs = remainingReferences.entrySet().stream()
+                .filter(blob -> blob.getValue() <= 0)
+                .map(Map.Entry::getKey)
+                .toArray(String[]::new);
+        if (releasedBlobs.length > 0) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(DELETE_RELEASED_BLOBS);
+                statement.setArray(1, connection.createArrayOf("varchar", releasedBlobs));
+                return statement;
+            });
+        }
+
+        return Arrays.stream(keys)
+                .filter(objectKey -> remainingReferences.getOrDefault(objectKey, 0L) <= 0)
+                .toList();
+    }
+
+    private List<ResourcesResponse> insertFoldersIfAbsent(Set<String> folderPaths, User user) {
+        if (folderPaths.isEmpty()) {
+            return List.of();
+        }
+
+        String[] paths = folderPaths.toArray(String[]::new);
+        String[] names = folderPaths.stream().map(PathUtilsService::getResourceName).toArray(String[]::new);
+        String[] parentPaths = folderPaths.stream().map(PathUtilsService::getParentPath).toArray(String[]::new);
+
+        List<String> insertedPaths = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_FOLDERS_IF_ABSENT);
+            statement.setLong(1, user.getId());
+            statement.setInt(2, ResourcesType.DIRECTORY.ordinal());
+            statement.setArray(3, connection.createArrayOf("varchar", names));
+            statement.setArray(4, connection.createArrayOf("varchar", paths));
+            statement.setArray(5, connection.createArrayOf("varchar", parentPaths));
+            return statement;
+        }, (resultSet, rowNumber) -> resultSet.getString(1));
+
+        return insertedPaths.stream()
+                .map(path -> ResourcesResponse.builder()
+                        .path(path)
+                        .name(getResourceName(path))
+                        .type(ResourcesType.DIRECTORY)
+                        .build())
+                .toList();
     }
 
     @Transactional
@@ -79,6 +290,7 @@ public class ResourcePersistenceService {
         return Resource.builder()
                 .fileName(resourcesName)
                 .filePath(absolutePath)
+                .parentPath(getParentPath(absolutePath))
                 .ownerId(ownerId)
                 .size(resourcesName.contains(".") ? size : 0)
                 .type(resourcesName.contains(".") ? ResourcesType.FILE : ResourcesType.DIRECTORY)
@@ -89,7 +301,24 @@ public class ResourcePersistenceService {
     public void deleteResource(String absolutePath) {
         Optional<Resource> resource = resourceRepository.findResourceByFilePath(absolutePath);
 
-        resource.ifPresent(resourceRepository::delete);
+        resourceRepository.deleteByFilePath(absolutePath);
+        resource.ifPresent(deleted -> {
+            updateAncestorTotals(absolutePath, getTotals(deleted).negate());
+            updateUsedBytes(deleted.getOwnerId().getId(), -deleted.getSize());
+        });
+    }
+
+    @Transactional
+    public int deleteResourcesUnder(String folderPath) {
+        Optional<Resource> folder = resourceRepository.findResourceByFilePath(folderPath);
+
+        int deleted = resourceRepository.deleteByFilePathPrefix(escapeLike(folderPath) + "%");
+        folder.ifPresent(resource -> {
+            updateAncestorTotals(folderPath, getTotals(resource).negate());
+            updateUsedBytes(resource.getOwnerId().getId(), -resource.getSize());
+        });
+
+        return deleted;
     }
 
     @Transactional
@@ -100,4 +329,349 @@ public class ResourcePersistenceService {
         }
         throw new FailedResourceOperationsException("Ошибка операции базы данных над ресурсом");
     }
+
+    @Transactional(readOnly = true)
+    public Optional<ResourcesResponse> findResourceInfo(String absolutePath) {
+        return resourceRepository.findResourceByFilePath(absolutePath).map(resourceMapper::toDTO);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isResourceExist(String absolutePath) {
+        return resourceRepository.existsByFilePath(absolutePath);
+    }
+
+    @Transactional(readOnly = true)
+    public String getObjectKey(String absolutePath) throws FileDoesNotExistException {
+        Resource resource = resourceRepository.findResourceByFilePath(absolutePath)
+                .filter(file -> file.getType() == ResourcesType.FILE)
+                .orElseThrow(() -> new FileDoesNotExistException(
+                        String.format("Файл по пути: %s не найден", absolutePath)
+                ));
+
+        return getObjectKey(resource);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ResourcesResponse> getDirectoryContents(String folderPath) {
+        return getDirectoryPage(folderPath, null, Limit.unlimited(), false);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ResourcesResponse> getDirectoryPage(String folderPath, String afterName, Limit limit, boolean descending) {
+        List<Resource> resources;
+        if (descending) {
+            resources = afterName == null
+                    ? resourceRepository.findByParentPathOrderByFileNameDesc(folderPath, limit)
+                    : resourceRepository.findByParentPathAndFileNameLessThanOrderByFileNameDesc(folderPath, afterName, limit);
+        } else {
+            resources = afterName == null
+                    ? resourceRepository.findByParentPathOrderByFileNameAsc(folderPath, limit)
+                    : resourceRepository.findByParentPathAndFileNameGreaterThanOrderByFileNameAsc(folderPath, afterName, limit);
+        }
+
+        return resources.stream()
+                .map(resourceMapper::toDTO)
+                .toList();
+    }
+
+    @Transactional
+    public void reconcileDirectory(String folderPath, List<ResourcesResponse> storedContents, User user) {
+        Map<String, ResourcesResponse> stored = new LinkedHashMap<>();
+        storedContents.stream()
+                .filter(resource -> !resource.getPath().equals(folderPath))
+                .forEach(resource -> stored.put(resource.getPath(), resource));
+
+        List<String> paths = new ArrayList<>(stored.keySet());
+        paths.add(folderPath);
+        Map<String, Resource> existResources = resourceRepository.findAllByFilePathIn(paths)
+                .stream()
+                .collect(Collectors.toMap(Resource::getFilePath, resource -> resource));
+
+        Map<String, FolderTotals> folderTotals = new HashMap<>();
+        List<Resource> changedResources = new ArrayList<>();
+        stored.values().forEach(resource -> {
+            Resource existResource = existResources.get(resource.getPath());
+            if (existResource == null) {
+                Resource newResource = createNewResource(resource.getName(), resource.getPath(), user, resource.getSize());
+                addToAncestors(folderTotals, newResource.getFilePath(), getTotals(newResource));
+                changedResources.add(newResource);
+            } else if (!getParentPath(resource.getPath()).equals(existResource.getParentPath())) {
+                existResource.setParentPath(getParentPath(resource.getPath()));
+                changedResources.add(existResource);
+            }
+        });
+        resourceRepository.saveAll(changedResources);
+
+        List<Resource> missingResources = resourceRepository.findByParentPathOrderByFileNameAsc(folderPath, Limit.unlimited())
+                .stream()
+                .filter(resource -> !stored.containsKey(resource.getFilePath()))
+                .toList();
+        resourceRepository.deleteAllInBatch(missingResources);
+        missingResources.forEach(resource ->
+                addToAncestors(folderTotals, resource.getFilePath(), getTotals(resource).negate())
+        );
+
+        long storedBytes = changedResources.stream()
+                .filter(resource -> !existResources.containsKey(resource.getFilePath()))
+                .mapToLong(Resource::getSize)
+                .sum();
+        long missingBytes = missingResources.stream()
+                .mapToLong(Resource::getSize)
+                .sum();
+
+        resourceRepository.flush();
+        applyFolderTotals(folderTotals);
+        updateUsedBytes(user.getId(), storedBytes - missingBytes);
+    }
+
+    public Iterator<ArchiveEntry> iterateArchiveEntries(String folderPath) {
+        String prefix = escapeLike(folderPath) + "_%";
+
+        return new Iterator<>() {
+            private Iterator<Resource> page = Collections.emptyIterator();
+            private String after = folderPath;
+            private boolean lastPage;
+
+            @Override
+            public boolean hasNext() {
+                if (!page.hasNext() && !lastPage) {
+                    List<Resource> resources = resourceRepository.findPageByFilePathPrefix(
+                            prefix, after, Limit.of(ARCHIVE_PAGE_SIZE)
+                    );
+                    lastPage = resources.size() < ARCHIVE_PAGE_SIZE;
+                    if (!resources.isEmpty()) {
+                        after = resources.get(resources.size() - 1).getFilePath();
+                    }
+                    page = resources.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public ArchiveEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                Resource resource = page.next();
+                return new ArchiveEntry(
+                        resource.getFilePath().substring(folderPath.length()),
+                        resource.getType() == ResourcesType.FILE ? getObjectKey(resource) : null,
+                        resource.getType() == ResourcesType.FILE ? resource.getSize() : 0
+                );
+            }
+        };
+    }
+
+    @Transactional
+    public void markDeleted(String absolutePath) {
+        String prefix = escapeLike(absolutePath) + (absolutePath.endsWith("/") ? "%" : "");
+        Optional<Resource> resource = resourceRepository.findResourceByFilePath(absolutePath);
+
+        resourceRepository.markDeleted(prefix, Instant.now().truncatedTo(ChronoUnit.MICROS));
+        resource.ifPresent(deleted -> updateAncestorTotals(absolutePath, getTotals(deleted).negate()));
+    }
+
+    @Transactional
+    public ResourcesResponse restoreDeleted(String absolutePath, Instant deletedAfter) throws FileDoesNotExistException {
+        Resource resource = resourceRepository.findLastDeleted(absolutePath, deletedAfter)
+                .orElseThrow(() -> new FileDoesNotExistException(
+                        String.format("Ресурс по пути: %s не найден в корзине", absolutePath)
+                ));
+        String prefix = escapeLike(absolutePath) + (absolutePath.endsWith("/") ? "%" : "");
+
+        resourceRepository.restoreDeleted(prefix, resource.getDeletedAt());
+        updateAncestorTotals(absolutePath, getTotals(resource));
+
+        return getResourceInfo(absolutePath);
+    }
+
+    @Transactional
+    public int purgeDeleted(Instant deletedBefore, int limit) {
+        List<Resource> resources = resourceRepository.lockExpiredDeleted(deletedBefore, limit);
+        if (resources.isEmpty()) {
+            return 0;
+        }
+
+        enqueueObjectDeletions(releaseObjects(resources.stream()
+                .filter(resource -> resource.getType() == ResourcesType.FILE)
+                .map(this::getObjectKey)
+                .toList()));
+
+        resources.stream()
+                .filter(resource -> resource.getType() == ResourcesType.FILE)
+                .collect(Collectors.groupingBy(
+                        resource -> resource.getOwnerId().getId(), Collectors.summingLong(Resource::getSize)
+                ))
+                .forEach((ownerId, size) -> updateUsedBytes(ownerId, -size));
+
+        return resourceRepository.purgeDeleted(resources.stream().map(Resource::getId).toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> getPendingObjectDeletions(int limit) {
+        return getPendingObjectDeletions(0, limit);
+    }
+
+    public List<String> getPendingObjectDeletions(int offset, int limit) {
+        return jdbcTemplate.queryForList(SELECT_OBJECT_DELETIONS, String.class, limit, offset);
+    }
+
+    @Transactional
+    public void completeObjectDeletions(List<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+
+        String[] keys = objectKeys.toArray(String[]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_OBJECT_DELETIONS);
+            statement.setArray(1, connection.createArrayOf("varchar", keys));
+            return statement;
+        });
+    }
+
+    private void enqueueObjectDeletions(List<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+
+        String[] keys = objectKeys.toArray(String[]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ENQUEUE_OBJECT_DELETIONS);
+            statement.setArray(1, connection.createArrayOf("varchar", keys));
+            return statement;
+        });
+    }
+
+    public long getUsedBytes(long userId) {
+        Long usedBytes = jdbcTemplate.queryForObject(SELECT_USED_BYTES, Long.class, userId);
+        return usedBytes == null ? 0 : usedBytes;
+    }
+
+    @Transactional
+    public boolean reserveUsedBytes(long userId, long bytes, long limit) {
+        return jdbcTemplate.update(RESERVE_USED_BYTES, bytes, userId, bytes, limit) > 0;
+    }
+
+    @Transactional
+    public void releaseUsedBytes(long userId, long bytes) {
+        updateUsedBytes(userId, -bytes);
+    }
+
+    @Transactional
+    public List<Long> reconcileUsedBytes(long afterUserId, int limit) {
+        List<Long> userIds = jdbcTemplate.queryForList(LOCK_USERS, Long.class, afterUserId, limit);
+        if (!userIds.isEmpty()) {
+            jdbcTemplate.update(RECONCILE_USED_BYTES, userIds.get(0), userIds.get(userIds.size() - 1));
+        }
+        return userIds;
+    }
+
+    @Transactional
+    public ResourcesResponse moveResource(String absolutePathFrom, String absolutePathTo) {
+        moveResourcesUnder(absolutePathFrom, absolutePathTo);
+
+        return getResourceInfo(absolutePathTo);
+    }
+
+    @Transactional
+    public int moveResourcesUnder(String absolutePathFrom, String absolutePathTo) {
+        Optional<Resource> resource = resourceRepository.findResourceByFilePath(absolutePathFrom);
+
+        int moved = updateResourcePaths(absolutePathFrom, absolutePathTo);
+        resource.ifPresent(movedResource -> {
+            Map<String, FolderTotals> folderTotals = new HashMap<>();
+            addToAncestors(folderTotals, absolutePathFrom, getTotals(movedResource).negate());
+            addToAncestors(folderTotals, absolutePathTo, getTotals(movedResource));
+            applyFolderTotals(folderTotals);
+        });
+
+        return moved;
+    }
+
+    private int updateResourcePaths(String absolutePathFrom, String absolutePathTo) {
+        String resourceName = getResourceName(absolutePathTo);
+
+        if (absolutePathFrom.endsWith("/")) {
+            return resourceRepository.movePathPrefix(
+                    absolutePathFrom,
+                    absolutePathFrom.length() + 1,
+                    escapeLike(absolutePathFrom) + "%",
+                    absolutePathTo,
+                    resourceName,
+                    getParentPath(absolutePathTo)
+            );
+        }
+        return resourceRepository.movePath(absolutePathFrom, absolutePathTo, resourceName, getParentPath(absolutePathTo));
+    }
+
+    private void updateUsedBytes(long userId, long delta) {
+        if (delta != 0) {
+            jdbcTemplate.update(UPDATE_USED_BYTES, delta, userId);
+        }
+    }
+
+    private void updateAncestorTotals(String absolutePath, FolderTotals totals) {
+        Map<String, FolderTotals> folderTotals = new HashMap<>();
+        addToAncestors(folderTotals, absolutePath, totals);
+        applyFolderTotals(folderTotals);
+    }
+
+    private void addToAncestors(Map<String, FolderTotals> folderTotals, String absolutePath, FolderTotals totals) {
+        getAncestorFolders(absolutePath).forEach(folderPath -> folderTotals.merge(folderPath, totals, FolderTotals::plus));
+    }
+
+    private void applyFolderTotals(Map<String, FolderTotals> folderTotals) {
+        List<Object[]> updates = folderTotals.entrySet().stream()
+                .filter(folder -> !folder.getValue().isEmpty())
+                .map(folder -> new Object[]{folder.getValue().size(), folder.getValue().itemCount(), folder.getKey()})
+                .toList();
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_FOLDER_TOTALS, updates);
+        }
+    }
+
+    private static FolderTotals getTotals(Resource resource) {
+        if (resource.getType() == ResourcesType.FILE) {
+            return new FolderTotals(resource.getSize(), 1);
+        }
+        return new FolderTotals(resource.getSize(), resource.getItemCount());
+    }
+
+    private static List<String> getAncestorFolders(String absolutePath) {
+        List<String> folders = new ArrayList<>();
+
+        int slashIndex = absolutePath.indexOf('/');
+        while ((slashIndex = absolutePath.indexOf('/', slashIndex + 1)) != -1 && slashIndex < absolutePath.length() - 1) {
+            folders.add(absolutePath.substring(0, slashIndex + 1));
+        }
+        return folders;
+    }
+
+    private String getObjectKey(Resource resource) {
+        return resource.getObjectKey() != null ? resource.getObjectKey() : resource.getFilePath();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private record FolderTotals(long size, long itemCount) {
+
+        private FolderTotals plus(FolderTotals other) {
+            return new FolderTotals(size + other.size, itemCount + other.itemCount);
+        }
+
+        private FolderTotals negate() {
+            return new FolderTotals(-size, -itemCount);
+        }
+
+        private boolean isEmpty() {
+            return size == 0 && itemCount == 0;
+        }
+    }
 }
@@ -1,22 +1,46 @@
 package com.example.cloudfilestorage.core.service;
 
+import com.example.cloudfilestorage.api.dto.DirectoryPageResponse;
 import com.example.cloudfilestorage.api.dto.ResourcesResponse;
+import com.example.cloudfilestorage.api.dto.UploadFailureResponse;
+import com.example.cloudfilestorage.api.dto.UploadReportResponse;
 import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
 import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
 import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
 import com.example.cloudfilestorage.core.exception.ResourceException.FolderDoesNotExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.InvalidResourceOperationException;
+import com.example.cloudfilestorage.core.exception.ResourceException.QuotaExceededException;
+import com.example.cloudfilestorage.core.model.ArchiveEntry;
+import com.example.cloudfilestorage.core.model.ObjectStat;
+import com.example.cloudfilestorage.core.model.PersistedUploads;
+import com.example.cloudfilestorage.core.model.UploadedObject;
 import com.example.cloudfilestorage.core.model.User;
 import com.example.cloudfilestorage.core.repository.ResourceRepository;
 import com.example.cloudfilestorage.core.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.example.cloudfilestorage.core.utilities.PathUtilsService.*;
 
@@ -24,29 +48,73 @@ import static com.example.cloudfilestorage.core.utilities.PathUtilsService.*;
 @RequiredArgsConstructor
 public class ResourceService {
 
+    private static final String FOLDER_CURSOR_SUFFIX = Character.toString(Character.MAX_CODE_POINT);
+
     private final UserService userService;
     private final ResourcePersistenceService resourcePersistenceService;
     private final MinioService minioService;
+    private final ThreadPoolTaskExecutor uploadTaskExecutor;
+    private final StorageLayoutService storageLayoutService;
+    private final DirectoryCacheService directoryCacheService;
+    private final QuotaService quotaService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${storage.listing.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${storage.listing.max-page-size:1000}")
+    private int maxPageSize;
 
+    @Value("${storage.trash.retention:7d}")
+    private Duration trashRetention;
 
-    public InputStream downloadFileProcessing(String path) {
+
+    public ObjectStat getFileStatProcessing(String path) throws FileDoesNotExistException {
         User user = userService.getCurrentUser();
         String absolutePath = getAbsolutPath(path, user);
 
-        if (!minioService.isFileExist(absolutePath)) {
-            throw new FileDoesNotExistException(String.format("Файл по пути: %s не найден", path));
-        }
-        return minioService.getFile(absolutePath);
+        return minioService.statFile(getObjectKey(absolutePath));
+    }
+
+    public StreamingResponseBody downloadFileProcessing(String path) {
+        User user = userService.getCurrentUser();
+        String objectKey = getObjectKey(getAbsolutPath(path, user));
+
+        return outputStream -> minioService.writeFile(objectKey, outputStream);
+    }
+
+    public StreamingResponseBody downloadFileRangeProcessing(String path, long offset, long length) {
+        User user = userService.getCurrentUser();
+        String objectKey = getObjectKey(getAbsolutPath(path, user));
+
+        return outputStream -> minioService.writeFile(objectKey, offset, length, outputStream);
+    }
+
+    public Optional<Path> getLocalFileProcessing(String path, long length) {
+        User user = userService.getCurrentUser();
+        String objectKey = getObjectKey(getAbsolutPath(path, user));
+
+        return minioService.getLocalFile(objectKey, length);
     }
 
-    public InputStream downloadFolderAsZipProcessing(String path) {
+    public StreamingResponseBody downloadFolderAsZipProcessing(String path) {
         User user = userService.getCurrentUser();
         String absolutePath = getAbsolutPath(path, user);
 
-        if (!minioService.isFolderExist(absolutePath)) {
+        if (storageLayoutService.isVirtualPaths()) {
+            if (!isFolderExist(absolutePath, user)) {
+                throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
+            }
+
+            Iterator<ArchiveEntry> entries = resourcePersistenceService.iterateArchiveEntries(absolutePath);
+            return outputStream -> minioService.writeArchive(entries, outputStream);
+        }
+
+        Iterator<ArchiveEntry> entries = minioService.iterateArchiveEntries(absolutePath);
+        if (!entries.hasNext() && !isUserFolder(absolutePath, user)) {
             throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
         }
-        return minioService.getFolderAsZip(absolutePath);
+        return outputStream -> minioService.writeArchive(entries, outputStream);
     }
 
 
@@ -55,33 +123,206 @@ public class ResourceService {
         String absolutePath = getAbsolutPath(path, user);
         String resourceName = getResourceName(absolutePath);
 
-        if (resourceName.contains(".")) {
-            if (!minioService.isFileExist(absolutePath)) {
-                throw new FileDoesNotExistException(String.format("Файл по пути: %s не найден", path));
+        return resourcePersistenceService.findResourceInfo(absolutePath).orElseThrow(() -> resourceName.contains(".")
+                ? new FileDoesNotExistException(String.format("Файл по пути: %s не найден", path))
+                : new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path)));
+    }
+
+    public List<ResourcesResponse> getInfoAboutContentsDirectory(String path) {
+        User user = userService.getCurrentUser();
+        String absolutePath = getAbsolutPath(path, user);
+
+        return directoryCacheService.getDirectoryContents(absolutePath, folderPath -> {
+            if (!storageLayoutService.isMetadataListing()) {
+                List<ResourcesResponse> contents = minioService.getInfoAboutContentsDirectory(folderPath);
+                if (contents.isEmpty() && !isUserFolder(folderPath, user)) {
+                    throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
+                }
+                return contents;
             }
+
+            if (!isFolderExist(folderPath, user)) {
+                throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
+            }
+
+            List<ResourcesResponse> contents = resourcePersistenceService.getDirectoryContents(folderPath);
+            if (contents.isEmpty() && !storageLayoutService.isVirtualPaths()) {
+                resourcePersistenceService.reconcileDirectory(
+                        folderPath, minioService.getInfoAboutContentsDirectory(folderPath), user
+                );
+                contents = resourcePersistenceService.getDirectoryContents(folderPath);
+            }
+            return contents;
+        });
+    }
+
+    public DirectoryPageResponse getDirectoryPageProcessing(String path, String cursor, Integer limit, boolean descending)
+            throws FolderDoesNotExistException, InvalidResourceOperationException {
+        User user = userService.getCurrentUser();
+        String absolutePath = getAbsolutPath(path, user);
+        int pageSize = limit == null ? defaultPageSize : limit;
+
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new InvalidResourceOperationException(
+                    String.format("Размер страницы должен быть от 1 до %d", maxPageSize)
+            );
         }
-        else {
-            if (!minioService.isFolderExist(absolutePath)) {
+        if (descending && !storageLayoutService.isMetadataListing()) {
+            throw new InvalidResourceOperationException("Обратная сортировка доступна только для списка из базы данных");
+        }
+
+        String after = decodeCursor(cursor);
+        List<ResourcesResponse> items;
+        if (storageLayoutService.isMetadataListing()) {
+            if (!isFolderExist(absolutePath, user)) {
+                throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
+            }
+            items = getMetadataPage(absolutePath, after, pageSize + 1, descending, user);
+        } else {
+            items = new ArrayList<>(pageSize + 1);
+            Iterator<ResourcesResponse> contents = minioService.iterateDirectoryContents(
+                    absolutePath, after == null ? null : getStorageStartAfter(absolutePath + after)
+            );
+            while (items.size() <= pageSize && contents.hasNext()) {
+                items.add(contents.next());
+            }
+            if (items.isEmpty() && after == null && !isUserFolder(absolutePath, user)) {
                 throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
             }
         }
-        return resourcePersistenceService.getResourceInfo(absolutePath);
+
+        if (items.size() <= pageSize) {
+            return new DirectoryPageResponse(items, null);
+        }
+
+        List<ResourcesResponse> page = items.subList(0, pageSize);
+        String lastKey = page.get(pageSize - 1).getPath().substring(absolutePath.length());
+        return new DirectoryPageResponse(List.copyOf(page), encodeCursor(lastKey));
     }
 
-    public List<ResourcesResponse> getInfoAboutContentsDirectory(String path) {
+    public StreamingResponseBody streamDirectoryContentsProcessing(String path) throws FolderDoesNotExistException {
         User user = userService.getCurrentUser();
         String absolutePath = getAbsolutPath(path, user);
 
-        if (!minioService.isFolderExist(absolutePath)) {
+        if (!storageLayoutService.isMetadataListing()) {
+            Iterator<ResourcesResponse> contents = minioService.iterateDirectoryContents(absolutePath, null);
+            if (!contents.hasNext() && !isUserFolder(absolutePath, user)) {
+                throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
+            }
+
+            return outputStream -> {
+                while (contents.hasNext()) {
+                    writeJsonLine(outputStream, contents.next());
+                }
+            };
+        }
+
+        if (!isFolderExist(absolutePath, user)) {
             throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
         }
 
-        return minioService.getInfoAboutContentsDirectory(absolutePath);
+        return outputStream -> {
+            String after = null;
+            List<ResourcesResponse> page;
+            do {
+                page = getMetadataPage(absolutePath, after, maxPageSize, false, user);
+                for (ResourcesResponse resource : page) {
+                    writeJsonLine(outputStream, resource);
+                }
+                outputStream.flush();
+
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getPath().substring(absolutePath.length());
+                }
+            } while (page.size() == maxPageSize);
+        };
+    }
+
+    private List<ResourcesResponse> getMetadataPage(
+            String folderPath, String after, int limit, boolean descending, User user
+    ) {
+        String afterName = after == null ? null : getResourceName(folderPath + after);
+        List<ResourcesResponse> items = resourcePersistenceService.getDirectoryPage(
+                folderPath, afterName, Limit.of(limit), descending
+        );
+
+        if (items.isEmpty() && after == null && !storageLayoutService.isVirtualPaths()) {
+            resourcePersistenceService.reconcileDirectory(
+                    folderPath, minioService.getInfoAboutContentsDirectory(folderPath), user
+            );
+            items = resourcePersistenceService.getDirectoryPage(folderPath, null, Limit.of(limit), descending);
+        }
+        return items;
+    }
+
+    private void writeJsonLine(OutputStream outputStream, ResourcesResponse resource) throws IOException {
+        outputStream.write(objectMapper.writeValueAsBytes(resource));
+        outputStream.write('\n');
+    }
+
+    private static String getStorageStartAfter(String key) {
+        return key.endsWith("/") ? key + FOLDER_CURSOR_SUFFIX : key;
+    }
+
+    private static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
     }
 
-    public List<ResourcesResponse> fileUploadProcessing(String path, MultipartFile[] file) throws FailedResourceOperationsException, FileAlreadyExistException {
+    private static String decodeCursor(String cursor) throws InvalidResourceOperationException {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidResourceOperationException("Некорректный курсор страницы");
+        }
+    }
+
+    public UploadReportResponse fileUploadProcessing(String path, MultipartFile[] file)
+            throws FailedResourceOperationsException, FileAlreadyExistException, QuotaExceededException {
         User user = userService.getCurrentUser();
-        List<ResourcesResponse> responses = new ArrayList<>();
+        long reservedBytes = quotaService.reserve(user, Arrays.stream(file).mapToLong(MultipartFile::getSize).sum());
+
+        List<UploadedObject> uploadedObjects = new ArrayList<>();
+        Map<MultipartFile, Throwable> failures = new LinkedHashMap<>();
+        PersistedUploads persisted;
+        try {
+            uploadFiles(path, file, user, uploadedObjects, failures);
+            persisted = resourcePersistenceService.updateResourcesInfo(
+                    uploadedObjects, user, this::removeRedundantObjects, reservedBytes
+            );
+        } catch (RuntimeException e) {
+            quotaService.release(user, reservedBytes);
+            throw e;
+        }
+
+        Set<String> conflicts = new HashSet<>(persisted.getConflicts());
+        uploadedObjects.stream()
+                .map(UploadedObject::getPath)
+                .filter(uploadedPath -> !conflicts.contains(uploadedPath))
+                .forEach(directoryCacheService::invalidate);
+
+        List<UploadFailureResponse> failed = new ArrayList<>();
+        failures.forEach((multipartFile, failure) -> failed.add(
+                new UploadFailureResponse(multipartFile.getOriginalFilename(), failure.getMessage())
+        ));
+        persisted.getConflicts().forEach(conflict -> failed.add(new UploadFailureResponse(
+                getResourceName(conflict), String.format("Файл %s уже существует", getResourceName(conflict))
+        )));
+
+        return UploadReportResponse.builder()
+                .uploaded(persisted.getResources())
+                .failed(failed)
+                .build();
+    }
+
+    private void uploadFiles(
+            String path, MultipartFile[] file, User user,
+            List<UploadedObject> uploadedObjects, Map<MultipartFile, Throwable> failures
+    ) {
+        Map<MultipartFile, CompletableFuture<UploadedObject>> uploads = new LinkedHashMap<>();
         for (MultipartFile multipartFile : file) {
 
             if (multipartFile.getOriginalFilename() == null || multipartFile.getOriginalFilename().isBlank()) {
@@ -92,17 +333,140 @@ public class ResourceService {
                     getUserFolder(user), path, multipartFile.getOriginalFilename()
             );
 
+            uploads.put(multipartFile, CompletableFuture.supplyAsync(
+                    () -> uploadFile(multipartFile, objectName), uploadTaskExecutor
+            ));
+        }
 
-            if (minioService.isFileExist(objectName)) {
-                throw new FileAlreadyExistException();
+        uploads.forEach((multipartFile, upload) -> {
+            try {
+                uploadedObjects.add(upload.join());
+            } catch (CompletionException e) {
+                failures.put(multipartFile, e.getCause());
             }
+        });
 
-            minioService.loadFileInStorage(multipartFile, objectName);
+        if (uploadedObjects.isEmpty() && !failures.isEmpty()) {
+            Throwable failure = failures.values().iterator().next();
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new FailedResourceOperationsException(failure.getMessage());
+        }
+    }
+
+    private UploadedObject uploadFile(MultipartFile multipartFile, String objectName) {
+        String fileAlreadyExistMessage = String.format("Файл %s уже существует", multipartFile.getOriginalFilename());
 
-            responses.addAll(resourcePersistenceService.updateResourcesInfo(objectName, multipartFile, user));
+        if (!storageLayoutService.isVirtualPaths()) {
+            try {
+                minioService.loadFileInStorage(multipartFile, objectName, true);
+            } catch (FileAlreadyExistException e) {
+                throw new FileAlreadyExistException(fileAlreadyExistMessage);
+            }
+
+            return new UploadedObject(objectName, objectName, multipartFile.getSize());
         }
 
-        return responses;
+        if (resourcePersistenceService.isResourceExist(objectName)) {
+            throw new FileAlreadyExistException(fileAlreadyExistMessage);
+        }
+
+        if (!storageLayoutService.isContentAddressed()) {
+            String objectKey = storageLayoutService.newObjectKey(objectName);
+            minioService.loadFileInStorage(multipartFile, objectKey);
+
+            return new UploadedObject(objectName, objectKey, multipartFile.getSize());
+        }
+
+        String digest = getContentDigest(multipartFile);
+        Optional<String> blobKey = resourcePersistenceService.findBlobObjectKey(digest);
+        if (blobKey.isPresent()) {
+            return new UploadedObject(objectName, blobKey.get(), multipartFile.getSize(), digest, false);
+        }
+
+        String objectKey = storageLayoutService.newObjectKey(objectName);
+        minioService.loadFileInStorage(multipartFile, objectKey);
+
+        return new UploadedObject(objectName, objectKey, multipartFile.getSize(), digest, true);
+    }
+
+    private void removeRedundantObjects(List<String> objectKeys) {
+        try {
+            minioService.deleteObjectsInStorage(objectKeys);
+        } catch (FailedResourceOperationsException ignored) {
+        }
+    }
+
+    private static String getContentDigest(MultipartFile multipartFile) throws FailedResourceOperationsException {
+        MessageDigest digest = newContentDigest();
+
+        try (InputStream inputStream = new DigestInputStream(multipartFile.getInputStream(), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newContentDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public List<ResourcesResponse> streamUploadProcessing(String path, String fileName, InputStream inputStream, String contentType)
+            throws FailedResourceOperationsException, FileAlreadyExistException, QuotaExceededException {
+        User user = userService.getCurrentUser();
+        String objectName = buildPath(getUserFolder(user), path, fileName);
+        quotaService.checkQuota(user, 0);
+
+        if (storageLayoutService.isVirtualPaths() && resourcePersistenceService.isResourceExist(objectName)) {
+            throw new FileAlreadyExistException();
+        }
+
+        QuotaService.ReservingInputStream reservingStream = quotaService.reserveWhileReading(user, inputStream);
+        PersistedUploads persisted;
+        try {
+            persisted = uploadStream(objectName, reservingStream, contentType, user);
+        } catch (RuntimeException e) {
+            quotaService.release(user, reservingStream.getReservedBytes());
+            if (reservingStream.getQuotaExceeded() != null) {
+                throw reservingStream.getQuotaExceeded();
+            }
+            throw e;
+        }
+
+        if (!persisted.getConflicts().isEmpty()) {
+            throw new FileAlreadyExistException(String.format("Файл %s уже существует", fileName));
+        }
+        directoryCacheService.invalidate(objectName);
+
+        return persisted.getResources();
+    }
+
+    private PersistedUploads uploadStream(
+            String objectName, QuotaService.ReservingInputStream inputStream, String contentType, User user
+    ) {
+        String objectKey = storageLayoutService.newObjectKey(objectName);
+        UploadedObject uploadedObject;
+        if (!storageLayoutService.isVirtualPaths()) {
+            long size = minioService.loadStreamInStorage(inputStream, objectKey, contentType, true);
+            uploadedObject = new UploadedObject(objectName, objectKey, size);
+        } else if (storageLayoutService.isContentAddressed()) {
+            MessageDigest digest = newContentDigest();
+            long size = minioService.loadStreamInStorage(new DigestInputStream(inputStream, digest), objectKey, contentType);
+            uploadedObject = new UploadedObject(objectName, objectKey, size, HexFormat.of().formatHex(digest.digest()), true);
+        } else {
+            long size = minioService.loadStreamInStorage(inputStream, objectKey, contentType);
+            uploadedObject = new UploadedObject(objectName, objectKey, size);
+        }
+
+        return resourcePersistenceService.updateResourcesInfo(
+                List.of(uploadedObject), user, this::removeRedundantObjects, inputStream.getReservedBytes()
+        );
     }
 
     public ResourcesResponse createNewFolderProcessing(String path) throws FolderDoesNotExistException {
@@ -112,13 +476,18 @@ public class ResourceService {
         String parentPath = getParentPath(absolutePath);
         String resourceName = getResourceName(absolutePath);
 
-        if (!minioService.isFolderExist(parentPath)) {
+        if (!isFolderExist(parentPath, user)) {
             throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
         }
 
-        minioService.createFolderInStorage(absolutePath);
+        if (!storageLayoutService.isVirtualPaths()) {
+            minioService.createFolderInStorage(absolutePath);
+        }
+
+        ResourcesResponse folder = resourcePersistenceService.updateFolderInfo(resourceName, absolutePath, user);
+        directoryCacheService.invalidate(absolutePath);
 
-        return resourcePersistenceService.updateFolderInfo(resourceName, absolutePath, user);
+        return folder;
     }
 
     public void deleteResourceProcessing(String path) throws FolderDoesNotExistException {
@@ -132,38 +501,85 @@ public class ResourceService {
             deleteFolderProcessing(absolutePath);
         }
 
-        minioService.isFolderExist(getParentPath(absolutePath));
+        directoryCacheService.invalidate(absolutePath);
     }
 
     public void deleteFolderProcessing(String path) throws FolderDoesNotExistException {
-        if (!minioService.isFolderExist(path)) {
-            throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
+        if (storageLayoutService.isVirtualPaths()) {
+            if (!resourcePersistenceService.isResourceExist(path)) {
+                throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
+            }
+
+            resourcePersistenceService.markDeleted(path);
+            return;
         }
 
-        minioService.deleteFolderInStorage(path);
+        if (minioService.deleteFolderInStorage(path) == 0) {
+            throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", path));
+        }
 
-        resourcePersistenceService.deleteResource(path);
+        resourcePersistenceService.deleteResourcesUnder(path);
     }
 
     public void deleteFileProcessing(String path) throws FileDoesNotExistException {
-        if (!minioService.isFileExist(path)) {
+        if (!isFileExist(path)) {
             throw new FileDoesNotExistException(String.format("Файл по пути: %s не найден", path));
         }
 
+        if (storageLayoutService.isVirtualPaths()) {
+            resourcePersistenceService.markDeleted(path);
+            return;
+        }
+
         minioService.deleteFileInStorage(path);
 
         resourcePersistenceService.deleteResource(path);
     }
 
+    public ResourcesResponse restoreResourceProcessing(String path)
+            throws FileDoesNotExistException, FolderDoesNotExistException, FileAlreadyExistException {
+        if (!storageLayoutService.isVirtualPaths()) {
+            throw new InvalidResourceOperationException("Корзина недоступна для текущего режима хранения");
+        }
+
+        User user = userService.getCurrentUser();
+        String absolutePath = getAbsolutPath(path, user);
+
+        if (resourcePersistenceService.isResourceExist(absolutePath)) {
+            throw new FileAlreadyExistException(String.format("Ресурс по пути: %s уже существует", path));
+        }
+
+        if (!isFolderExist(getParentPath(absolutePath), user)) {
+            throw new FolderDoesNotExistException(
+                    String.format("Папка по пути: %s не найдена", getParentPath(absolutePath))
+            );
+        }
+
+        ResourcesResponse restored = resourcePersistenceService.restoreDeleted(
+                absolutePath, Instant.now().minus(trashRetention)
+        );
+        directoryCacheService.invalidate(absolutePath);
+
+        return restored;
+    }
+
     public ResourcesResponse moveAndRenameResourceProcessing(String from, String to) {
         User user = userService.getCurrentUser();
-        return moveResourceProcessing(from, to, user);
+        ResourcesResponse moved = moveResourceProcessing(from, to, user);
+
+        directoryCacheService.invalidate(getAbsolutPath(from, user));
+        directoryCacheService.invalidate(getAbsolutPath(to, user));
+
+        return moved;
     }
 
 
     public ResourcesResponse moveResourceProcessing(String from, String to, User user) throws FileDoesNotExistException {
         String absolutePath = getAbsolutPath(from, user);
         String resourceName = getResourceName(absolutePath);
+        if (storageLayoutService.isVirtualPaths()) {
+            return moveResourceInMetadata(absolutePath, getAbsolutPath(to, user), user);
+        }
         if (resourceName.contains(".")) {
             return renameFileProcessing(absolutePath, to, user);
         }
@@ -174,39 +590,40 @@ public class ResourceService {
 
 
     public ResourcesResponse renameFileProcessing(String absolutePathFrom, String to, User user)
-            throws FileDoesNotExistException{
+            throws FileDoesNotExistException, FileAlreadyExistException {
         String absolutePathTo = getAbsolutPath(to, user);
+        checkMoveTargetAbsent(absolutePathTo);
 
-        if (!minioService.isFileExist(absolutePathFrom)) {
+        try {
+            minioService.copyFile(absolutePathFrom, absolutePathTo);
+        } catch (FileDoesNotExistException e) {
             throw new FileDoesNotExistException("Файл источника не существует");
-        };
-
-        minioService.copyFile(absolutePathFrom, absolutePathTo);
+        }
 
         minioService.deleteFileInStorage(absolutePathFrom);
 
-        resourcePersistenceService.deleteResource(absolutePathFrom);
+        if (resourcePersistenceService.moveResourcesUnder(absolutePathFrom, absolutePathTo) > 0) {
+            return resourcePersistenceService.getResourceInfo(absolutePathTo);
+        }
 
         return resourcePersistenceService.updateFileInfo(
                 getResourceName(absolutePathTo),
                 absolutePathTo,
                 user,
-                minioService.getFileSize(absolutePathFrom));
+                minioService.getFileSize(absolutePathTo));
     }
 
     public ResourcesResponse moveFolderProcessing(String absolutePathFrom, String to, User user)
-            throws FolderDoesNotExistException{
+            throws FolderDoesNotExistException, FileAlreadyExistException {
         String absolutePathTo = getAbsolutPath(to, user);
+        checkMoveTargetAbsent(absolutePathTo);
 
-        if (!minioService.isFolderExist(absolutePathFrom)){
-            throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найден", absolutePathFrom));
-        }
-
-        minioService.copyFolder(absolutePathFrom, absolutePathTo);
-
-        minioService.deleteFolderInStorage(absolutePathFrom);
+        minioService.moveFolder(absolutePathFrom, absolutePathTo);
 
-        resourcePersistenceService.deleteResource(absolutePathFrom);
+        resourcePersistenceService.moveResourcesUnder(absolutePathFrom, absolutePathTo);
+        if (resourcePersistenceService.isResourceExist(absolutePathTo)) {
+            return resourcePersistenceService.getResourceInfo(absolutePathTo);
+        }
 
         return resourcePersistenceService.updateFolderInfo(
                 getResourceName(absolutePathTo),
@@ -214,4 +631,66 @@ public class ResourceService {
                 user
         );
     }
+
+    private ResourcesResponse moveResourceInMetadata(String absolutePathFrom, String absolutePathTo, User user)
+            throws FileDoesNotExistException, FolderDoesNotExistException, FileAlreadyExistException {
+        if (!resourcePersistenceService.isResourceExist(absolutePathFrom)) {
+            if (absolutePathFrom.endsWith("/")) {
+                throw new FolderDoesNotExistException(String.format("Папка по пути: %s не найдена", absolutePathFrom));
+            }
+            throw new FileDoesNotExistException("Файл источника не существует");
+        }
+
+        if (resourcePersistenceService.isResourceExist(absolutePathTo)) {
+            throw new FileAlreadyExistException(String.format("Ресурс по пути: %s уже существует", absolutePathTo));
+        }
+
+        if (!isFolderExist(getParentPath(absolutePathTo), user)) {
+            throw new FolderDoesNotExistException(
+                    String.format("Папка по пути: %s не найдена", getParentPath(absolutePathTo))
+            );
+        }
+
+        return resourcePersistenceService.moveResource(absolutePathFrom, absolutePathTo);
+    }
+
+    private void checkMoveTargetAbsent(String absolutePathTo) throws FileAlreadyExistException {
+        boolean existsInStorage = absolutePathTo.endsWith("/")
+                ? minioService.isFolderExist(absolutePathTo)
+                : minioService.isFileExist(absolutePathTo);
+
+        if (existsInStorage || resourcePersistenceService.isResourceExist(absolutePathTo)) {
+            throw new FileAlreadyExistException(String.format("Ресурс по пути: %s уже существует", absolutePathTo));
+        }
+    }
+
+    private boolean isFileExist(String absolutePath) {
+        if (storageLayoutService.isVirtualPaths()) {
+            return resourcePersistenceService.isResourceExist(absolutePath);
+        }
+        return minioService.isFileExist(absolutePath);
+    }
+
+    private boolean isFolderExist(String absolutePath, User user) {
+        if (storageLayoutService.isMetadataListing()) {
+            if (isUserFolder(absolutePath, user) || resourcePersistenceService.isResourceExist(absolutePath)) {
+                return true;
+            }
+            if (storageLayoutService.isVirtualPaths()) {
+                return false;
+            }
+        }
+        return minioService.isFolderExist(absolutePath);
+    }
+
+    private static boolean isUserFolder(String absolutePath, User user) {
+        return absolutePath.equals(getUserFolder(user) + "/");
+    }
+
+    private String getObjectKey(String absolutePath) throws FileDoesNotExistException {
+        if (storageLayoutService.isVirtualPaths()) {
+            return resourcePersistenceService.getObjectKey(absolutePath);
+        }
+        return absolutePath;
+    }
 }
@@ -0,0 +1,40 @@
+package com.example.cloudfilestorage.core.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+public class StorageLayoutService {
+
+    private static final String OBJECT_KEY_PREFIX = "objects/";
+
+    @Value("${storage.virtual-paths.enabled:false}")
+    private boolean virtualPaths;
+
+    @Value("${storage.metadata-listing.enabled:false}")
+    private boolean metadataListing;
+
+    @Value("${storage.dedup.enabled:false}")
+    private boolean dedup;
+
+    public boolean isVirtualPaths() {
+        return virtualPaths;
+    }
+
+    public boolean isMetadataListing() {
+        return virtualPaths || metadataListing;
+    }
+
+    public boolean isContentAddressed() {
+        return virtualPaths && dedup;
+    }
+
+    public String newObjectKey(String absolutePath) {
+        if (!virtualPaths) {
+            return absolutePath;
+        }
+        return OBJECT_KEY_PREFIX + UUID.randomUUID();
+    }
+}
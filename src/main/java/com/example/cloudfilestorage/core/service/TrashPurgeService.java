@@ -0,0 +1,69 @@
+package com.example.cloudfilestorage.core.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class TrashPurgeService {
+
+    private final ResourcePersistenceService resourcePersistenceService;
+    private final MinioService minioService;
+    private final StorageLayoutService storageLayoutService;
+
+    @Value("${storage.trash.retention:7d}")
+    private Duration retention;
+
+    @Value("${storage.trash.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Value("${storage.trash.purge-max-batches:10}")
+    private int purgeMaxBatches;
+
+    @Scheduled(
+            initialDelayString = "${storage.trash.purge-interval:30s}",
+            fixedDelayString = "${storage.trash.purge-interval:30s}"
+    )
+    public void purgeExpiredResources() {
+        if (!storageLayoutService.isVirtualPaths()) {
+            return;
+        }
+
+        Instant deletedBefore = Instant.now().minus(retention);
+        for (int batch = 0; batch < purgeMaxBatches; batch++) {
+            if (resourcePersistenceService.purgeDeleted(deletedBefore, purgeBatchSize) < purgeBatchSize) {
+                break;
+            }
+        }
+
+        deletePendingObjects();
+    }
+
+    private void deletePendingObjects() {
+        int failedCount = 0;
+        for (int batch = 0; batch < purgeMaxBatches; batch++) {
+            List<String> objectKeys = resourcePersistenceService.getPendingObjectDeletions(failedCount, purgeBatchSize);
+            if (objectKeys.isEmpty()) {
+                return;
+            }
+
+            Map<String, String> failedObjects = minioService.tryDeleteObjectsInStorage(objectKeys);
+            resourcePersistenceService.completeObjectDeletions(
+                    objectKeys.stream().filter(objectKey -> !failedObjects.containsKey(objectKey)).toList()
+            );
+            // Failed keys stay pending at the head of the queue, so the next page starts after them
+            failedCount += failedObjects.size();
+
+            if (objectKeys.size() < purgeBatchSize) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.cloudfilestorage.core.service;
+
+import com.example.cloudfilestorage.api.dto.ResourcesResponse;
+import com.example.cloudfilestorage.api.dto.UploadSessionResponse;
+import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.InvalidResourceOperationException;
+import com.example.cloudfilestorage.core.exception.ResourceException.UploadSessionNotFoundException;
+import com.example.cloudfilestorage.core.model.PersistedUploads;
+import com.example.cloudfilestorage.core.model.UploadSession;
+import com.example.cloudfilestorage.core.model.UploadedObject;
+import com.example.cloudfilestorage.core.model.UploadedPart;
+import com.example.cloudfilestorage.core.model.User;
+import io.minio.messages.Part;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.example.cloudfilestorage.core.utilities.PathUtilsService.*;
+
+@Service
+@RequiredArgsConstructor
+public class UploadSessionService {
+
+    private static final String SESSION_KEY_PATTERN = "upload-session:%s";
+    private static final String PARTS_KEY_PATTERN = "upload-session:%s:parts";
+    private static final String SESSION_INDEX_KEY = "upload-sessions";
+    private static final int MAX_PART_NUMBER = 10_000;
+
+    private final UserService userService;
+    private final MinioService minioService;
+    private final ResourcePersistenceService resourcePersistenceService;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StorageLayoutService storageLayoutService;
+    private final DirectoryCacheService directoryCacheService;
+    private final QuotaService quotaService;
+
+    @Value("${minio.upload.part-size:8MB}")
+    private DataSize partSize;
+
+    @Value("${minio.upload.max-part-size:64MB}")
+    private DataSize maxPartSize;
+
+    @Value("${minio.upload.session-ttl:24h}")
+    private Duration sessionTtl;
+
+    public UploadSessionResponse initiateSession(String path, String fileName, String contentType)
+            throws FileAlreadyExistException {
+        User user = userService.getCurrentUser();
+        String objectName = buildPath(getUserFolder(user), path, fileName);
+
+        if (isFileExist(objectName)) {
+            throw new FileAlreadyExistException();
+        }
+
+        String objectKey = storageLayoutService.newObjectKey(objectName);
+        UploadSession session = UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .uploadId(minioService.initiateMultipartUpload(objectKey, contentType))
+                .objectName(objectName)
+                .objectKey(objectKey)
+                .ownerId(user.getId())
+                .createdAt(System.currentTimeMillis())
+                .build();
+
+        redisTemplate.opsForValue().set(sessionKey(session.getId()), session, sessionTtl);
+        redisTemplate.opsForHash().put(SESSION_INDEX_KEY, session.getId(), session);
+
+        return toResponse(session, List.of());
+    }
+
+    public UploadedPart uploadPart(String sessionId, int partNumber, InputStream inputStream)
+            throws UploadSessionNotFoundException, InvalidResourceOperationException {
+        if (partNumber < 1 || partNumber > MAX_PART_NUMBER) {
+            throw new InvalidResourceOperationException(
+                    String.format("Номер части должен быть от 1 до %d", MAX_PART_NUMBER)
+            );
+        }
+
+        UploadSession session = getOwnedSession(sessionId);
+
+        byte[] data;
+        try {
+            data = inputStream.readNBytes((int) maxPartSize.toBytes() + 1);
+        } catch (IOException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+        if (data.length == 0 || data.length > maxPartSize.toBytes()) {
+            throw new InvalidResourceOperationException(
+                    String.format("Размер части должен быть от 1 байта до %s", maxPartSize)
+            );
+        }
+
+        String etag = minioService.uploadPart(session.getObjectKey(), session.getUploadId(), partNumber, data);
+        UploadedPart uploadedPart = new UploadedPart(partNumber, etag, data.length);
+
+        redisTemplate.opsForHash().put(partsKey(sessionId), String.valueOf(partNumber), uploadedPart);
+        redisTemplate.expire(partsKey(sessionId), sessionTtl);
+        redisTemplate.expire(sessionKey(sessionId), sessionTtl);
+
+        return uploadedPart;
+    }
+
+    public UploadSessionResponse getSessionInfo(String sessionId) throws UploadSessionNotFoundException {
+        UploadSession session = getOwnedSession(sessionId);
+
+        return toResponse(session, getUploadedParts(sessionId));
+    }
+
+    public List<ResourcesResponse> completeSession(String sessionId)
+            throws UploadSessionNotFoundException, FileAlreadyExistException {
+        User user = userService.getCurrentUser();
+        UploadSession session = getOwnedSession(sessionId, user);
+        List<UploadedPart> uploadedParts = getUploadedParts(sessionId);
+
+        if (uploadedParts.isEmpty()) {
+            throw new InvalidResourceOperationException("Не загружено ни одной части файла");
+        }
+        if (isFileExist(session.getObjectName())) {
+            throw new FileAlreadyExistException(fileAlreadyExistMessage(session));
+        }
+
+        List<Part> parts = uploadedParts.stream()
+                .map(part -> new Part(part.getPartNumber(), part.getEtag()))
+                .toList();
+        long size = uploadedParts.stream()
+                .mapToLong(UploadedPart::getSize)
+                .sum();
+        long reservedBytes = quotaService.reserve(user, size);
+
+        PersistedUploads persisted;
+        try {
+            minioService.completeMultipartUpload(
+                    session.getObjectKey(), session.getUploadId(), parts, !storageLayoutService.isVirtualPaths()
+            );
+            persisted = resourcePersistenceService.updateResourcesInfo(
+                    List.of(new UploadedObject(session.getObjectName(), session.getObjectKey(), size)), user,
+                    this::removeRedundantObjects, reservedBytes
+            );
+        } catch (RuntimeException e) {
+            quotaService.release(user, reservedBytes);
+            throw e;
+        }
+        deleteSession(sessionId);
+
+        if (!persisted.getConflicts().isEmpty()) {
+            throw new FileAlreadyExistException(fileAlreadyExistMessage(session));
+        }
+        directoryCacheService.invalidate(session.getObjectName());
+
+        return persisted.getResources();
+    }
+
+    public void abortSession(String sessionId) throws UploadSessionNotFoundException {
+        UploadSession session = getOwnedSession(sessionId);
+
+        minioService.abortMultipartUpload(session.getObjectKey(), session.getUploadId());
+        deleteSession(sessionId);
+    }
+
+    @Scheduled(
+            initialDelayString = "${minio.upload.sweep-interval:15m}",
+            fixedDelayString = "${minio.upload.sweep-interval:15m}"
+    )
+    public void abortExpiredSessions() {
+        ScanOptions scanOptions = ScanOptions.scanOptions().count(1000).build();
+
+        try (Cursor<Map.Entry<Object, Object>> sessions = redisTemplate.opsForHash().scan(SESSION_INDEX_KEY, scanOptions)) {
+            while (sessions.hasNext()) {
+                Map.Entry<Object, Object> entry = sessions.next();
+                String sessionId = String.valueOf(entry.getKey());
+                if (Boolean.TRUE.equals(redisTemplate.hasKey(sessionKey(sessionId)))) {
+                    continue;
+                }
+
+                if (entry.getValue() instanceof UploadSession session) {
+                    minioService.abortMultipartUpload(session.getObjectKey(), session.getUploadId());
+                }
+                redisTemplate.delete(partsKey(sessionId));
+                redisTemplate.opsForHash().delete(SESSION_INDEX_KEY, sessionId);
+            }
+        }
+    }
+
+    private boolean isFileExist(String objectName) {
+        return storageLayoutService.isVirtualPaths()
+                ? resourcePersistenceService.isResourceExist(objectName)
+                : minioService.isFileExist(objectName);
+    }
+
+    private static String fileAlreadyExistMessage(UploadSession session) {
+        return String.format("Файл %s уже существует", getResourceName(session.getObjectName()));
+    }
+
+    private void removeRedundantObjects(List<String> objectKeys) {
+        try {
+            minioService.deleteObjectsInStorage(objectKeys);
+        } catch (FailedResourceOperationsException ignored) {
+        }
+    }
+
+    private UploadSession getOwnedSession(String sessionId) throws UploadSessionNotFoundException {
+        return getOwnedSession(sessionId, userService.getCurrentUser());
+    }
+
+    private UploadSession getOwnedSession(String sessionId, User user) throws UploadSessionNotFoundException {
+        Object session = redisTemplate.opsForValue().get(sessionKey(sessionId));
+
+        if (!(session instanceof UploadSession uploadSession) || uploadSession.getOwnerId() != user.getId()) {
+            throw new UploadSessionNotFoundException(String.format("Сессия загрузки %s не найдена", sessionId));
+        }
+        return uploadSession;
+    }
+
+    private List<UploadedPart> getUploadedParts(String sessionId) {
+        return redisTemplate.opsForHash().values(partsKey(sessionId))
+                .stream()
+                .map(UploadedPart.class::cast)
+                .sorted(Comparator.comparingInt(UploadedPart::getPartNumber))
+                .toList();
+    }
+
+    private void deleteSession(String sessionId) {
+        redisTemplate.delete(List.of(sessionKey(sessionId), partsKey(sessionId)));
+        redisTemplate.opsForHash().delete(SESSION_INDEX_KEY, sessionId);
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session, List<UploadedPart> uploadedParts) {
+        return UploadSessionResponse.builder()
+                .sessionId(session.getId())
+                .path(session.getObjectName().substring(session.getObjectName().indexOf('/') + 1))
+                .partSize(partSize.toBytes())
+                .uploadedParts(uploadedParts.stream().map(UploadedPart::getPartNumber).toList())
+                .build();
+    }
+
+    private static String sessionKey(String sessionId) {
+        return String.format(SESSION_KEY_PATTERN, sessionId);
+    }
+
+    private static String partsKey(String sessionId) {
+        return String.format(PARTS_KEY_PATTERN, sessionId);
+    }
+}
@@ -2,8 +2,12 @@ package com.example.cloudfilestorage.core.service;
 
 import com.example.cloudfilestorage.core.exception.AuthException.UserAlreadyExistsException;
 import com.example.cloudfilestorage.core.exception.AuthException.UserNotFoundException;
+import com.example.cloudfilestorage.core.model.AuthenticatedUser;
 import com.example.cloudfilestorage.core.model.User;
 import com.example.cloudfilestorage.core.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,17 +15,27 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.time.Duration;
 
 @Service
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final Cache<String, Long> userIds;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(
+            UserRepository userRepository,
+            PasswordEncoder passwordEncoder,
+            @Value("${users.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${users.cache.ttl:10m}") Duration cacheTtl
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
     }
 
     public User signUp(String username, String password) throws UserAlreadyExistsException {
@@ -44,12 +58,9 @@ public class UserService implements UserDetailsService {
                         String.format("Пользователь с именем пользователя: + %s + не найден", username)
                 ));
 
+        userIds.put(user.getUsername(), user.getId());
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .roles("USER")
-                .build();
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword());
     }
 
     public User getCurrentUser() {
@@ -60,10 +71,15 @@ public class UserService implements UserDetailsService {
         }
 
         Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails) {
-            Optional<User> optionalUser = userRepository.findByUsername(((UserDetails) principal).getUsername());
-            if (optionalUser.isPresent()) {
-                return optionalUser.get();
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return userRepository.getReferenceById(authenticatedUser.getId());
+        }
+        if (principal instanceof UserDetails userDetails) {
+            Long userId = userIds.get(userDetails.getUsername(), username -> userRepository.findByUsername(username)
+                    .map(User::getId)
+                    .orElse(null));
+            if (userId != null) {
+                return userRepository.getReferenceById(userId);
             }
         }
         throw new UserNotFoundException("Пользователь не авторизован");
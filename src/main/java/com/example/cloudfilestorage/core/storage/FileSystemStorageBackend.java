@@ -0,0 +1,492 @@
+package com.example.cloudfilestorage.core.storage;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
+import com.example.cloudfilestorage.core.model.ObjectStat;
+import com.example.cloudfilestorage.core.model.StoredObject;
+import io.minio.messages.Part;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "filesystem")
+public class FileSystemStorageBackend implements StorageBackend {
+
+    private static final String TEMP_DIRECTORY = ".tmp";
+    private static final String UPLOADS_DIRECTORY = ".uploads";
+    private static final String FOLDER_MARKER = ".folder-marker";
+    private static final Set<String> INTERNAL_NAMES = Set.of(TEMP_DIRECTORY, UPLOADS_DIRECTORY, FOLDER_MARKER);
+
+    private final Path root;
+
+    public FileSystemStorageBackend(@Value("${storage.filesystem.root:./data/storage}") Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        Files.createDirectories(this.root.resolve(TEMP_DIRECTORY));
+        Files.createDirectories(this.root.resolve(UPLOADS_DIRECTORY));
+    }
+
+    @Override
+    public long put(String key, InputStream content, long size, String contentType, boolean ifAbsent)
+            throws FileAlreadyExistException, FailedResourceOperationsException {
+        try {
+            if (key.endsWith("/")) {
+                Path folder = resolve(key);
+                Files.createDirectories(folder);
+                Files.write(folder.resolve(FOLDER_MARKER), new byte[0]);
+                return 0;
+            }
+
+            Path temp = newTempFile();
+            try {
+                long written = Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+                placeObject(temp, key, ifAbsent);
+                return written;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws FailedResourceOperationsException {
+        try {
+            return Files.newInputStream(resolveFile(key));
+        } catch (NoSuchFileException e) {
+            throw notFound(key);
+        } catch (IOException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws FailedResourceOperationsException {
+        try {
+            FileChannel channel = openChannel(key);
+            channel.position(offset);
+            return new RangeInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) throws FailedResourceOperationsException {
+        Path path = resolveFile(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public ObjectStat stat(String key) throws FileDoesNotExistException, FailedResourceOperationsException {
+        Path path = resolve(key);
+        if (key.endsWith("/") || !Files.isRegularFile(path)) {
+            throw notFound(key);
+        }
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            String contentType = Files.probeContentType(path);
+
+            return ObjectStat.builder()
+                    .objectName(key)
+                    .size(attributes.size())
+                    .etag(Long.toHexString(lastModified) + "-" + Long.toHexString(attributes.size()))
+                    .lastModified(lastModified)
+                    .contentType(contentType == null ? "application/octet-stream" : contentType)
+                    .build();
+        } catch (IOException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Iterator<StoredObject> list(String prefix, String startAfter, boolean recursive) {
+        String directoryKey = prefix.substring(0, prefix.lastIndexOf('/') + 1);
+        Path directory = resolveDirectory(directoryKey);
+        if (!Files.isDirectory(directory)) {
+            return List.<StoredObject>of().iterator();
+        }
+
+        return new DirectoryIterator(directory, directoryKey, prefix, startAfter, recursive);
+    }
+
+    @Override
+    public void copy(String from, String to) throws FailedResourceOperationsException {
+        if (from.endsWith("/")) {
+            put(to, InputStream.nullInputStream(), 0, null, false);
+            return;
+        }
+
+        try {
+            Path temp = root.resolve(TEMP_DIRECTORY).resolve(UUID.randomUUID().toString());
+            try {
+                Path source = resolveFile(from);
+                if (!Files.isRegularFile(source)) {
+                    throw notFound(from);
+                }
+                try {
+                    Files.createLink(temp, source);
+                } catch (UnsupportedOperationException | IOException e) {
+                    Files.copy(source, temp);
+                }
+                moveIntoPlace(temp, resolve(to));
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, String> delete(List<String> keys) {
+        Map<String, String> errors = new HashMap<>();
+        for (String key : keys) {
+            try {
+                Path path = key.endsWith("/") ? resolve(key).resolve(FOLDER_MARKER) : resolve(key);
+                Files.deleteIfExists(path);
+                pruneEmptyDirectories(path.getParent());
+            } catch (IOException | FailedResourceOperationsException e) {
+                errors.put(key, String.valueOf(e.getMessage()));
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) throws FailedResourceOperationsException {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Files.createDirectories(resolveUpload(uploadId));
+        } catch (IOException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+        return uploadId;
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, byte[] data)
+            throws FailedResourceOperationsException {
+        try {
+            Files.write(resolveUpload(uploadId).resolve(String.valueOf(partNumber)), data);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, List<Part> parts, boolean ifAbsent)
+            throws FileAlreadyExistException, FailedResourceOperationsException {
+        Path upload = resolveUpload(uploadId);
+
+        try {
+            Path temp = newTempFile();
+            try {
+                try (FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    for (Part part : parts) {
+                        try (FileChannel source = FileChannel.open(
+                                upload.resolve(String.valueOf(part.partNumber())), StandardOpenOption.READ
+                        )) {
+                            long position = 0;
+                            while (position < source.size()) {
+                                position += source.transferTo(position, source.size() - position, target);
+                            }
+                        }
+                    }
+                }
+                placeObject(temp, key, ifAbsent);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+        abortMultipartUpload(key, uploadId);
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        try (Stream<Path> paths = Files.walk(resolveUpload(uploadId))) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (Exception ignored) {
+        }
+    }
+
+    private FileChannel openChannel(String key) throws IOException {
+        try {
+            return FileChannel.open(resolveFile(key), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw notFound(key);
+        }
+    }
+
+    private static FileDoesNotExistException notFound(String key) {
+        return new FileDoesNotExistException(String.format("Файл по пути: %s не найден", key));
+    }
+
+    private Path resolve(String key) throws FailedResourceOperationsException {
+        String[] segments = key.split("/", -1);
+        int segmentCount = key.endsWith("/") ? segments.length - 1 : segments.length;
+        if (segmentCount == 0 || INTERNAL_NAMES.contains(segments[0])) {
+            throw invalidKey(key);
+        }
+        for (int i = 0; i < segmentCount; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")
+                    || segment.equals(FOLDER_MARKER) || segment.indexOf('\\') >= 0) {
+                throw invalidKey(key);
+            }
+        }
+
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root.resolve(segments[0]))) {
+            throw invalidKey(key);
+        }
+        return path;
+    }
+
+    private static FailedResourceOperationsException invalidKey(String key) {
+        return new FailedResourceOperationsException(String.format("Недопустимый ключ объекта: %s", key));
+    }
+
+    private Path resolveFile(String key) throws FailedResourceOperationsException {
+        if (key.endsWith("/")) {
+            throw new FailedResourceOperationsException(String.format("Объект %s не является файлом", key));
+        }
+        return resolve(key);
+    }
+
+    private Path resolveDirectory(String prefix) throws FailedResourceOperationsException {
+        return prefix.isEmpty() ? root : resolve(prefix);
+    }
+
+    private Path resolveUpload(String uploadId) throws FailedResourceOperationsException {
+        try {
+            return root.resolve(UPLOADS_DIRECTORY).resolve(UUID.fromString(uploadId).toString());
+        } catch (IllegalArgumentException e) {
+            throw new FailedResourceOperationsException(String.format("Недопустимый идентификатор загрузки: %s", uploadId));
+        }
+    }
+
+    private Path newTempFile() throws IOException {
+        return Files.createTempFile(root.resolve(TEMP_DIRECTORY), "object-", null);
+    }
+
+    private void placeObject(Path temp, String key, boolean ifAbsent) throws IOException {
+        Path target = resolve(key);
+        if (!ifAbsent) {
+            moveIntoPlace(temp, target);
+            return;
+        }
+
+        try {
+            try {
+                Files.createLink(target, temp);
+            } catch (NoSuchFileException e) {
+                Files.createDirectories(target.getParent());
+                Files.createLink(target, temp);
+            }
+        } catch (FileAlreadyExistsException e) {
+            throw new FileAlreadyExistException(String.format("Файл по пути: %s уже существует", key));
+        }
+    }
+
+    private void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private void pruneEmptyDirectories(Path directory) {
+        while (directory != null && directory.startsWith(root) && !directory.equals(root)) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                return;
+            }
+            directory = directory.getParent();
+        }
+    }
+
+    private static boolean hasFolderMarker(Path directory) {
+        return Files.isRegularFile(directory.resolve(FOLDER_MARKER));
+    }
+
+    private record ListedPath(Path path, StoredObject object) {
+    }
+
+    private class DirectoryIterator implements Iterator<StoredObject> {
+
+        private final String prefix;
+        private final String startAfter;
+        private final boolean recursive;
+        private final Deque<Iterator<ListedPath>> levels = new ArrayDeque<>();
+        private StoredObject next;
+
+        private DirectoryIterator(Path directory, String directoryKey, String prefix, String startAfter, boolean recursive) {
+            this.prefix = prefix;
+            this.startAfter = startAfter;
+            this.recursive = recursive;
+
+            if (!directoryKey.isEmpty() && directoryKey.startsWith(prefix) && isAfterStart(directoryKey)
+                    && hasFolderMarker(directory)) {
+                next = new StoredObject(directoryKey, 0, true);
+            }
+            levels.push(listLevel(directory, directoryKey));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public StoredObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StoredObject current = next;
+            next = null;
+            return current;
+        }
+
+        private StoredObject advance() {
+            while (!levels.isEmpty()) {
+                Iterator<ListedPath> level = levels.peek();
+                if (!level.hasNext()) {
+                    levels.pop();
+                    continue;
+                }
+
+                ListedPath child = level.next();
+                String key = child.object().getKey();
+                if (!key.startsWith(prefix)) {
+                    continue;
+                }
+
+                if (!child.object().isDirectory()) {
+                    if (isAfterStart(key)) {
+                        return child.object();
+                    }
+                    continue;
+                }
+
+                if (!recursive) {
+                    if (isAfterStart(key)) {
+                        return child.object();
+                    }
+                    continue;
+                }
+
+                if (startAfter != null && startAfter.compareTo(key) >= 0 && !startAfter.startsWith(key)) {
+                    continue;
+                }
+                levels.push(listLevel(child.path(), key));
+                if (isAfterStart(key) && hasFolderMarker(child.path())) {
+                    return child.object();
+                }
+            }
+            return null;
+        }
+
+        private boolean isAfterStart(String key) {
+            return startAfter == null || key.compareTo(startAfter) > 0;
+        }
+
+        private Iterator<ListedPath> listLevel(Path directory, String directoryKey) {
+            try (Stream<Path> children = Files.list(directory)) {
+                return children
+                        .filter(path -> !INTERNAL_NAMES.contains(path.getFileName().toString()))
+                        .map(path -> {
+                            String key = directoryKey + path.getFileName().toString();
+                            if (Files.isDirectory(path)) {
+                                return new ListedPath(path, new StoredObject(key + "/", 0, true));
+                            }
+                            return new ListedPath(path, new StoredObject(key, path.toFile().length(), false));
+                        })
+                        .sorted(Comparator.comparing(listed -> listed.object().getKey()))
+                        .toList()
+                        .iterator();
+            } catch (NoSuchFileException e) {
+                return Collections.emptyIterator();
+            } catch (IOException e) {
+                throw new FailedResourceOperationsException(e.getMessage());
+            }
+        }
+    }
+
+    private static class RangeInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private RangeInputStream(InputStream inputStream, long length) {
+            super(inputStream);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = super.read();
+            if (value != -1) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read != -1) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.cloudfilestorage.core.storage;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
+import com.example.cloudfilestorage.core.model.ObjectStat;
+import com.example.cloudfilestorage.core.model.StoredObject;
+import com.example.cloudfilestorage.core.utilities.MultipartMinioClient;
+import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.errors.MinioException;
+import io.minio.errors.ServerException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import io.minio.messages.Part;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "storage.backend", havingValue = "minio", matchIfMissing = true)
+public class MinioStorageBackend implements StorageBackend {
+
+    private static final int MAX_MULTIPART_PARTS = 10_000;
+    private static final Set<String> TRANSIENT_ERROR_CODES = Set.of(
+            "InternalError", "ServiceUnavailable", "SlowDown", "RequestTimeout"
+    );
+    private static final Set<String> NOT_FOUND_ERROR_CODES = Set.of("NoSuchKey", "NoSuchObject");
+    private static final String PRECONDITION_FAILED_ERROR_CODE = "PreconditionFailed";
+    private static final Map<String, String> IF_ABSENT_HEADERS = Map.of("If-None-Match", "*");
+
+    private final MinioClient minioClient;
+    private final MultipartMinioClient multipartMinioClient;
+
+    @Value("${minio.buckets.user-files-bucket}")
+    private String userFilesBucketName;
+
+    @Value("${minio.upload.part-size:8MB}")
+    private DataSize uploadPartSize;
+
+    @Value("${minio.upload.part-concurrency:4}")
+    private int uploadPartConcurrency;
+
+    @Value("${minio.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${minio.retry.backoff:200ms}")
+    private Duration retryBackoff;
+
+    @Override
+    public long put(String key, InputStream content, long size, String contentType, boolean ifAbsent)
+            throws FileAlreadyExistException, FailedResourceOperationsException {
+        int partSize = (int) uploadPartSize.toBytes();
+
+        try {
+            if (size >= 0 && size <= partSize) {
+                putObject(key, content, size, contentType, ifAbsent);
+                return size;
+            }
+
+            byte[] firstPart = content.readNBytes(partSize);
+            if (firstPart.length < partSize) {
+                putObject(key, new ByteArrayInputStream(firstPart), firstPart.length, contentType, ifAbsent);
+                return firstPart.length;
+            }
+
+            return putParts(content, firstPart, key, contentType, ifAbsent);
+        } catch (FailedResourceOperationsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw toDomainException(e, key);
+        }
+    }
+
+    private void putObject(String key, InputStream content, long size, String contentType, boolean ifAbsent)
+            throws Exception {
+        PutObjectArgs.Builder args = PutObjectArgs.builder()
+                .bucket(userFilesBucketName)
+                .object(key)
+                .stream(content, size, -1);
+        if (contentType != null && !contentType.isBlank()) {
+            args.contentType(contentType);
+        }
+        if (ifAbsent) {
+            args.headers(IF_ABSENT_HEADERS);
+        }
+        minioClient.putObject(args.build());
+    }
+
+    private long putParts(InputStream inputStream, byte[] firstPart, String key, String contentType, boolean ifAbsent)
+            throws Exception {
+        int partSize = firstPart.length;
+        String uploadId = multipartMinioClient.createMultipartUpload(userFilesBucketName, key, contentType).get();
+
+        Semaphore partsInFlight = new Semaphore(uploadPartConcurrency);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<Part>> uploads = new ArrayList<>();
+        long totalSize = 0;
+
+        try {
+            byte[] part = firstPart;
+            while (part.length > 0) {
+                if (uploads.size() == MAX_MULTIPART_PARTS) {
+                    throw new FailedResourceOperationsException(
+                            String.format("Файл превышает максимальное количество частей: %d", MAX_MULTIPART_PARTS)
+                    );
+                }
+
+                partsInFlight.acquire();
+                if (failure.get() != null) {
+                    break;
+                }
+
+                CompletableFuture<Part> upload = multipartMinioClient.uploadPart(
+                        userFilesBucketName, key, uploadId, uploads.size() + 1, part
+                );
+                upload.whenComplete((uploaded, error) -> {
+                    if (error != null) {
+                        failure.compareAndSet(null, error);
+                    }
+                    partsInFlight.release();
+                });
+                uploads.add(upload);
+                totalSize += part.length;
+
+                part = inputStream.readNBytes(partSize);
+            }
+
+            Part[] parts = new Part[uploads.size()];
+            for (int i = 0; i < parts.length; i++) {
+                parts[i] = uploads.get(i).get();
+            }
+
+            multipartMinioClient.completeMultipartUpload(userFilesBucketName, key, uploadId, parts, ifAbsent).get();
+            return totalSize;
+        } catch (Exception e) {
+            uploads.forEach(upload -> upload.cancel(true));
+            multipartMinioClient.abortMultipartUpload(userFilesBucketName, key, uploadId);
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws FailedResourceOperationsException {
+        try {
+            return minioClient.getObject(
+                    GetObjectArgs.builder()
+                            .bucket(userFilesBucketName)
+                            .object(key)
+                            .build()
+            );
+        } catch (Exception e) {
+            throw toDomainException(e, key);
+        }
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws FailedResourceOperationsException {
+        try {
+            return minioClient.getObject(
+                    GetObjectArgs.builder()
+                            .bucket(userFilesBucketName)
+                            .object(key)
+                            .offset(offset)
+                            .length(length)
+                            .build()
+            );
+        } catch (Exception e) {
+            throw toDomainException(e, key);
+        }
+    }
+
+    @Override
+    public ObjectStat stat(String key) throws FileDoesNotExistException, FailedResourceOperationsException {
+        try {
+            StatObjectResponse stat = minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(userFilesBucketName)
+                            .object(key)
+                            .build()
+            );
+            return ObjectStat.builder()
+                    .objectName(stat.object())
+                    .size(stat.size())
+                    .etag(stat.etag())
+                    .lastModified(stat.lastModified().toInstant().toEpochMilli())
+                    .contentType(stat.contentType())
+                    .build();
+        } catch (ErrorResponseException e) {
+            throw new FileDoesNotExistException(String.format("Файл по пути: %s не найден", key));
+        } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Iterator<StoredObject> list(String prefix, String startAfter, boolean recursive) {
+        ListObjectsArgs.Builder args = ListObjectsArgs.builder()
+                .bucket(userFilesBucketName)
+                .prefix(prefix)
+                .recursive(recursive);
+        if (!recursive) {
+            args.delimiter("/");
+        }
+        if (startAfter != null) {
+            args.startAfter(startAfter);
+        }
+        Iterator<Result<Item>> results = minioClient.listObjects(args.build()).iterator();
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return results.hasNext();
+            }
+
+            @Override
+            public StoredObject next() {
+                try {
+                    Item item = results.next().get();
+                    return new StoredObject(item.objectName(), item.isDir() ? 0 : item.size(), item.isDir());
+                } catch (Exception e) {
+                    throw new FailedResourceOperationsException(e.getMessage());
+                }
+            }
+        };
+    }
+
+    @Override
+    public void copy(String from, String to) throws FailedResourceOperationsException {
+        try {
+            withRetries(() -> minioClient.copyObject(
+                    CopyObjectArgs.builder()
+                            .bucket(userFilesBucketName)
+                            .source(
+                                    CopySource.builder()
+                                            .bucket(userFilesBucketName)
+                                            .object(from)
+                                            .build()
+                            )
+                            .object(to)
+                            .build()
+            ));
+        } catch (Exception e) {
+            throw toDomainException(e, from);
+        }
+    }
+
+    @Override
+    public Map<String, String> delete(List<String> keys) throws FailedResourceOperationsException {
+        try {
+            return withRetries(() -> {
+                Map<String, String> deleteErrors = new HashMap<>();
+                Iterable<Result<DeleteError>> errorResults = minioClient.removeObjects(
+                        RemoveObjectsArgs.builder()
+                                .bucket(userFilesBucketName)
+                                .objects(keys.stream().map(DeleteObject::new).toList())
+                                .build()
+                );
+                for (Result<DeleteError> errorResult : errorResults) {
+                    DeleteError error = errorResult.get();
+                    deleteErrors.put(error.objectName(), error.message());
+                }
+                return deleteErrors;
+            });
+        } catch (Exception e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public String initiateMultipartUpload(String key, String contentType) throws FailedResourceOperationsException {
+        try {
+            return multipartMinioClient.createMultipartUpload(userFilesBucketName, key, contentType).get();
+        } catch (Exception e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, byte[] data)
+            throws FailedResourceOperationsException {
+        try {
+            return multipartMinioClient.uploadPart(userFilesBucketName, key, uploadId, partNumber, data)
+                    .get()
+                    .etag();
+        } catch (Exception e) {
+            throw new FailedResourceOperationsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, List<Part> parts, boolean ifAbsent)
+            throws FileAlreadyExistException, FailedResourceOperationsException {
+        try {
+            multipartMinioClient.completeMultipartUpload(
+                    userFilesBucketName, key, uploadId, parts.toArray(new Part[0]), ifAbsent
+            ).get();
+        } catch (Exception e) {
+            throw toDomainException(e, key);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        multipartMinioClient.abortMultipartUpload(userFilesBucketName, key, uploadId);
+    }
+
+    private <T> T withRetries(Callable<T> operation) throws Exception {
+        long backoff = retryBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.call();
+            } catch (Exception e) {
+                if (attempt >= retryMaxAttempts || !isTransient(e)) {
+                    throw e;
+                }
+                Thread.sleep(backoff);
+                backoff *= 2;
+            }
+        }
+    }
+
+    private RuntimeException toDomainException(Exception e, String key) {
+        Throwable cause = e instanceof ExecutionException || e instanceof CompletionException ? e.getCause() : e;
+
+        if (cause instanceof ErrorResponseException errorResponseException) {
+            String code = errorResponseException.errorResponse().code();
+            if (NOT_FOUND_ERROR_CODES.contains(code)) {
+                return new FileDoesNotExistException(String.format("Файл по пути: %s не найден", key));
+            }
+            if (PRECONDITION_FAILED_ERROR_CODE.equals(code)) {
+                return new FileAlreadyExistException(String.format("Файл по пути: %s уже существует", key));
+            }
+        }
+        return new FailedResourceOperationsException(String.valueOf(cause.getMessage()));
+    }
+
+    private boolean isTransient(Exception e) {
+        if (e instanceof IOException || e instanceof ServerException) {
+            return true;
+        }
+        return e instanceof ErrorResponseException errorResponseException
+                && TRANSIENT_ERROR_CODES.contains(errorResponseException.errorResponse().code());
+    }
+}
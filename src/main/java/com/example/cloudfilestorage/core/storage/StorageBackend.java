@@ -0,0 +1,46 @@
+package com.example.cloudfilestorage.core.storage;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
+import com.example.cloudfilestorage.core.model.ObjectStat;
+import com.example.cloudfilestorage.core.model.StoredObject;
+import io.minio.messages.Part;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface StorageBackend {
+
+    long put(String key, InputStream content, long size, String contentType, boolean ifAbsent)
+            throws FileAlreadyExistException, FailedResourceOperationsException;
+
+    InputStream get(String key) throws FailedResourceOperationsException;
+
+    InputStream get(String key, long offset, long length) throws FailedResourceOperationsException;
+
+    default Optional<Path> localFile(String key) throws FailedResourceOperationsException {
+        return Optional.empty();
+    }
+
+    ObjectStat stat(String key) throws FileDoesNotExistException, FailedResourceOperationsException;
+
+    Iterator<StoredObject> list(String prefix, String startAfter, boolean recursive);
+
+    void copy(String from, String to) throws FailedResourceOperationsException;
+
+    Map<String, String> delete(List<String> keys) throws FailedResourceOperationsException;
+
+    String initiateMultipartUpload(String key, String contentType) throws FailedResourceOperationsException;
+
+    String uploadPart(String key, String uploadId, int partNumber, byte[] data) throws FailedResourceOperationsException;
+
+    void completeMultipartUpload(String key, String uploadId, List<Part> parts, boolean ifAbsent)
+            throws FileAlreadyExistException, FailedResourceOperationsException;
+
+    void abortMultipartUpload(String key, String uploadId);
+}
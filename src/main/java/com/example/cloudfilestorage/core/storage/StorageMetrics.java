@@ -0,0 +1,217 @@
+package com.example.cloudfilestorage.core.storage;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@RequiredArgsConstructor
+public class StorageMetrics {
+
+    public static final String STAT = "stat";
+    public static final String LIST = "list";
+    public static final String PUT = "put";
+    public static final String GET = "get";
+    public static final String COPY = "copy";
+    public static final String REMOVE = "remove";
+    public static final String REMOVE_OBJECTS = "removeObjects";
+    public static final String INITIATE_MULTIPART = "initiateMultipart";
+    public static final String UPLOAD_PART = "uploadPart";
+    public static final String COMPLETE_MULTIPART = "completeMultipart";
+    public static final String ABORT_MULTIPART = "abortMultipart";
+
+    private static final String SUCCESS = "success";
+    private static final String NOT_FOUND = "not_found";
+    private static final String CONFLICT = "conflict";
+    private static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> byteSummaries = new ConcurrentHashMap<>();
+    private final Map<String, Counter> objectCounters = new ConcurrentHashMap<>();
+
+    public <T, E extends Exception> T record(String operation, StorageCall<T, E> call) throws E {
+        AtomicInteger requestsInFlight = getInFlight(operation);
+        requestsInFlight.incrementAndGet();
+        long start = System.nanoTime();
+        String outcome = ERROR;
+
+        try {
+            T result = call.call();
+            outcome = SUCCESS;
+            return result;
+        } catch (FileDoesNotExistException e) {
+            outcome = NOT_FOUND;
+            throw e;
+        } catch (FileAlreadyExistException e) {
+            outcome = CONFLICT;
+            throw e;
+        } finally {
+            requestsInFlight.decrementAndGet();
+            getTimer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public <E extends Exception> void run(String operation, StorageRunnable<E> call) throws E {
+        record(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public <T> Iterator<T> recordList(StorageCall<Iterator<T>, RuntimeException> call) {
+        return record(LIST, () -> new RecordedListing<>(call.call()));
+    }
+
+    public void recordBytes(String operation, long bytes) {
+        if (bytes < 0) {
+            return;
+        }
+
+        byteSummaries.computeIfAbsent(operation, key -> DistributionSummary.builder("storage.bytes")
+                        .description("Bytes transferred to or from object storage")
+                        .baseUnit("bytes")
+                        .tag("operation", key)
+                        .register(meterRegistry))
+                .record(bytes);
+    }
+
+    public void recordObjects(String operation, long count) {
+        objectCounters.computeIfAbsent(operation, key -> Counter.builder("storage.objects")
+                        .description("Objects affected by object storage operations")
+                        .tag("operation", key)
+                        .register(meterRegistry))
+                .increment(count);
+    }
+
+    public InputStream countBytes(String operation, InputStream inputStream) {
+        return new FilterInputStream(inputStream) {
+            private long bytes;
+            private boolean closed;
+
+            @Override
+            public int read() throws IOException {
+                int read = super.read();
+                if (read >= 0) {
+                    bytes++;
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    bytes += read;
+                }
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    recordBytes(operation, bytes);
+                }
+                super.close();
+            }
+        };
+    }
+
+    private Timer getTimer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + ":" + outcome, key -> Timer.builder("storage.requests")
+                .description("Object storage requests")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private AtomicInteger getInFlight(String operation) {
+        return inFlight.computeIfAbsent(operation, key -> {
+            AtomicInteger requestsInFlight = new AtomicInteger();
+            Gauge.builder("storage.requests.in.flight", requestsInFlight, AtomicInteger::get)
+                    .description("Object storage requests currently in progress")
+                    .tag("operation", key)
+                    .register(meterRegistry);
+            return requestsInFlight;
+        });
+    }
+
+    @FunctionalInterface
+    public interface StorageCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface StorageRunnable<E extends Exception> {
+        void run() throws E;
+    }
+
+    private class RecordedListing<T> implements Iterator<T> {
+
+        private final Iterator<T> objects;
+        private T nextObject;
+        private boolean fetched;
+        private boolean exhausted;
+
+        private RecordedListing(Iterator<T> objects) {
+            this.objects = objects;
+            fetchNext();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!fetched && !exhausted) {
+                long start = System.nanoTime();
+                try {
+                    fetchNext();
+                } catch (RuntimeException e) {
+                    getTimer(LIST, ERROR).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    throw e;
+                }
+            }
+            return fetched;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            T next = nextObject;
+            nextObject = null;
+            fetched = false;
+            recordObjects(LIST, 1);
+            return next;
+        }
+
+        private void fetchNext() {
+            if (objects.hasNext()) {
+                nextObject = objects.next();
+                fetched = true;
+                return;
+            }
+
+            exhausted = true;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.cloudfilestorage.core.utilities;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.errors.MinioException;
+import io.minio.messages.Part;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+
+public class MultipartMinioClient extends MinioAsyncClient {
+
+    public MultipartMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    public CompletableFuture<String> createMultipartUpload(String bucket, String objectName, String contentType)
+            throws MinioException, InvalidKeyException, IOException, NoSuchAlgorithmException {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null && !contentType.isBlank()) {
+            headers.put("Content-Type", contentType);
+        }
+
+        return createMultipartUploadAsync(bucket, null, objectName, headers, HashMultimap.create())
+                .thenApply(response -> response.result().uploadId());
+    }
+
+    public CompletableFuture<Part> uploadPart(String bucket, String objectName, String uploadId, int partNumber, byte[] data)
+            throws MinioException, InvalidKeyException, IOException, NoSuchAlgorithmException {
+        return uploadPartAsync(
+                bucket, null, objectName, data, data.length, uploadId, partNumber, HashMultimap.create(), HashMultimap.create()
+        ).thenApply(response -> new Part(partNumber, response.etag()));
+    }
+
+    public CompletableFuture<ObjectWriteResponse> completeMultipartUpload(
+            String bucket, String objectName, String uploadId, Part[] parts
+    ) throws MinioException, InvalidKeyException, IOException, NoSuchAlgorithmException {
+        return completeMultipartUpload(bucket, objectName, uploadId, parts, false);
+    }
+
+    public CompletableFuture<ObjectWriteResponse> completeMultipartUpload(
+            String bucket, String objectName, String uploadId, Part[] parts, boolean ifAbsent
+    ) throws MinioException, InvalidKeyException, IOException, NoSuchAlgorithmException {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (ifAbsent) {
+            headers.put("If-None-Match", "*");
+        }
+
+        return completeMultipartUploadAsync(
+                bucket, null, objectName, uploadId, parts, headers, HashMultimap.create()
+        );
+    }
+
+    public void abortMultipartUpload(String bucket, String objectName, String uploadId) {
+        try {
+            abortMultipartUploadAsync(bucket, null, objectName, uploadId, HashMultimap.create(), HashMultimap.create())
+                    .join();
+        } catch (Exception ignored) {
+        }
+    }
+}
@@ -12,9 +12,17 @@ public class PathUtilsService {
         return String.format(userFolderPattern, authenticatedUser.getId());
     }
 
-    public static String buildPath(String... parts) {
+    public static String buildPath(String... parts) throws InvalidResourceOperationException {
         StringBuilder path = new StringBuilder();
         for (String part : parts) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            for (String segment : part.split("/")) {
+                if (segment.equals(".") || segment.equals("..")) {
+                    throw new InvalidResourceOperationException(String.format("Недопустимый путь: %s", part));
+                }
+            }
             path.append(part);
             if (!part.contains(".") && !part.endsWith("/")) {
                 path.append("/");
@@ -24,12 +32,16 @@ public class PathUtilsService {
     }
 
     public static String getParentPath(String fullPath) {
-        if (fullPath == null || fullPath.lastIndexOf('/') == -1) {
+        if (fullPath == null) {
             return "";
         }
 
-        int lastSlashIndex = fullPath.lastIndexOf('/');
-        return fullPath.substring(0, lastSlashIndex + 1);
+        String path = fullPath.endsWith("/") ? fullPath.substring(0, fullPath.length() - 1) : fullPath;
+        int lastSlashIndex = path.lastIndexOf('/');
+        if (lastSlashIndex == -1) {
+            return "";
+        }
+        return path.substring(0, lastSlashIndex + 1);
     }
 
     public static String getResourceName(String fullPath) {
@@ -0,0 +1,16 @@
+create table if not exists users
+(
+    id       bigint generated by default as identity primary key,
+    username varchar(255),
+    password varchar(255) not null
+);
+
+create table if not exists resources
+(
+    id        bigint generated by default as identity primary key,
+    file_name varchar(255) not null,
+    file_path varchar(255) not null,
+    owner_id  bigint       not null references users (id),
+    size      bigint       not null,
+    type      smallint     not null check (type between 0 and 1)
+);
@@ -0,0 +1,34 @@
+alter table resources
+    add column if not exists parent_path varchar(255),
+    add column if not exists object_key  varchar(255),
+    add column if not exists deleted_at  timestamp(6) with time zone;
+
+update resources
+set parent_path = regexp_replace(file_path, '[^/]+/?$', '')
+where parent_path is null;
+
+delete
+from resources duplicate
+    using resources original
+where duplicate.owner_id = original.owner_id
+  and duplicate.file_path = original.file_path
+  and duplicate.id > original.id
+  and duplicate.deleted_at is null
+  and original.deleted_at is null;
+
+drop index if exists idx_resources_parent_path_file_name;
+
+create unique index uq_resources_owner_file_path
+    on resources (owner_id, file_path)
+    where deleted_at is null;
+
+create index idx_resources_parent_path_file_name
+    on resources (parent_path, file_name)
+    where deleted_at is null;
+
+create index idx_resources_file_path_prefix
+    on resources (file_path text_pattern_ops);
+
+create index idx_resources_deleted_at
+    on resources (deleted_at)
+    where deleted_at is not null;
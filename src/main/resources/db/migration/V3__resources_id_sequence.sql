@@ -0,0 +1,6 @@
+alter table resources
+    alter column id drop identity if exists;
+
+create sequence if not exists resources_id_seq increment by 50;
+
+select setval('resources_id_seq', coalesce((select max(id) from resources), 0) + 50);
@@ -0,0 +1,18 @@
+alter table resources
+    add column item_count bigint not null default 0;
+
+update resources folder
+set size       = totals.size,
+    item_count = totals.item_count
+from (select parent.id,
+             coalesce(sum(child.size), 0) as size,
+             count(child.id)              as item_count
+      from resources parent
+               left join resources child
+                         on child.owner_id = parent.owner_id
+                             and child.type = 0
+                             and child.deleted_at is null
+                             and child.file_path like replace(replace(replace(parent.file_path, '\', '\\'), '%', '\%'), '_', '\_') || '%'
+      where parent.type = 1
+      group by parent.id) totals
+where folder.id = totals.id;
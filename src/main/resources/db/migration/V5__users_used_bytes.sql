@@ -0,0 +1,7 @@
+alter table users
+    add column used_bytes bigint not null default 0;
+
+create index if not exists idx_resources_owner_id on resources (owner_id);
+
+update users u
+set used_bytes = coalesce((select sum(r.size) from resources r where r.owner_id = u.id and r.type = 0), 0);
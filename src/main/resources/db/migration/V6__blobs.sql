@@ -0,0 +1,7 @@
+create table if not exists blobs
+(
+    digest     varchar(64)  primary key,
+    object_key varchar(255) not null unique,
+    size       bigint       not null,
+    ref_count  bigint       not null
+);
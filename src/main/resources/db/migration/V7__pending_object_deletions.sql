@@ -0,0 +1,5 @@
+create table if not exists pending_object_deletions
+(
+    object_key varchar(255) primary key,
+    created_at timestamp(6) with time zone not null default now()
+);
@@ -0,0 +1,124 @@
+package com.example.cloudfilestorage.controller;
+
+import com.example.cloudfilestorage.api.controller.ResourceController;
+import com.example.cloudfilestorage.config.SecurityConfig;
+import com.example.cloudfilestorage.core.model.ObjectStat;
+import com.example.cloudfilestorage.core.service.ResourceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ResourceController.class)
+@Import(SecurityConfig.class)
+@WithMockUser(username = "testuser")
+public class ResourceControllerTest {
+
+    private static final String FILE_PATH = "report.txt";
+    private static final byte[] FILE_CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ResourceService resourceService;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        when(resourceService.getFileStatProcessing(FILE_PATH)).thenReturn(
+                new ObjectStat(FILE_PATH, FILE_CONTENT.length, "abc", LAST_MODIFIED, "text/plain")
+        );
+        when(resourceService.downloadFileProcessing(FILE_PATH)).thenReturn(out -> out.write(FILE_CONTENT));
+        when(resourceService.downloadFileRangeProcessing(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            int offset = Math.toIntExact(invocation.<Long>getArgument(1));
+            int length = Math.toIntExact(invocation.<Long>getArgument(2));
+            return (StreamingResponseBody) out ->
+                    out.write(Arrays.copyOfRange(FILE_CONTENT, offset, offset + length));
+        });
+    }
+
+    @Test
+    public void whenEtagMatches_thenReturns304NotModified() throws Exception {
+        mockMvc.perform(get("/api/resource/download/{path}", FILE_PATH)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(resourceService, never()).downloadFileProcessing(anyString());
+    }
+
+    @Test
+    public void whenRangeRequested_thenReturns206PartialContent() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/resource/download/{path}", FILE_PATH)
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().bytes("2345".getBytes(StandardCharsets.UTF_8)));
+
+        verify(resourceService).downloadFileRangeProcessing(FILE_PATH, 2, 4);
+    }
+
+    @Test
+    public void whenRangeUnsatisfiable_thenReturns416() throws Exception {
+        mockMvc.perform(get("/api/resource/download/{path}", FILE_PATH)
+                        .header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+
+        verify(resourceService, never()).downloadFileRangeProcessing(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void whenIfRangeDoesNotMatch_thenReturns200WithWholeFile() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/resource/download/{path}", FILE_PATH)
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, FILE_CONTENT.length))
+                .andExpect(content().bytes(FILE_CONTENT));
+
+        verify(resourceService, never()).downloadFileRangeProcessing(anyString(), anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.cloudfilestorage.service;
+
+import com.example.cloudfilestorage.api.dto.ResourcesResponse;
+import com.example.cloudfilestorage.core.service.DirectoryCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DirectoryCacheServiceTest {
+
+    private static final List<String> FOLDERS = List.of(
+            "user-1-files/",
+            "user-1-files/docs/",
+            "user-1-files/docs/reports/",
+            "user-1-files/docs/reports/2024/",
+            "user-1-files/docsarchive/",
+            "user-1-files/photos/",
+            "user-2-files/docs/"
+    );
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private DirectoryCacheService directoryCacheService;
+
+    private List<String> loadedFolders;
+
+    @BeforeEach
+    void setUp() {
+        directoryCacheService = new DirectoryCacheService(redisTemplate, 100_000, Duration.ofMinutes(5), false);
+        loadedFolders = new ArrayList<>();
+        FOLDERS.forEach(this::getContents);
+        loadedFolders.clear();
+    }
+
+    @Test
+    void uploadedFileInvalidatesAncestorsTest() {
+        directoryCacheService.invalidate("user-1-files/docs/reports/report.txt");
+
+        assertEquals(List.of("user-1-files/", "user-1-files/docs/", "user-1-files/docs/reports/"), reloadAll());
+    }
+
+    @Test
+    void createdFolderInvalidatesAncestorsAndItselfTest() {
+        directoryCacheService.invalidate("user-1-files/photos/");
+
+        assertEquals(List.of("user-1-files/", "user-1-files/photos/"), reloadAll());
+    }
+
+    @Test
+    void deletedFolderInvalidatesSubtreeTest() {
+        directoryCacheService.invalidate("user-1-files/docs/");
+
+        assertEquals(
+                List.of(
+                        "user-1-files/",
+                        "user-1-files/docs/",
+                        "user-1-files/docs/reports/",
+                        "user-1-files/docs/reports/2024/"
+                ),
+                reloadAll()
+        );
+    }
+
+    @Test
+    void movedFolderInvalidatesSourceAndTargetTest() {
+        directoryCacheService.invalidate("user-1-files/docs/reports/");
+        directoryCacheService.invalidate("user-1-files/photos/reports/");
+
+        assertEquals(
+                List.of(
+                        "user-1-files/",
+                        "user-1-files/docs/",
+                        "user-1-files/docs/reports/",
+                        "user-1-files/docs/reports/2024/",
+                        "user-1-files/photos/"
+                ),
+                reloadAll()
+        );
+    }
+
+    @Test
+    void redisInvalidationIsPublishedTest() {
+        DirectoryCacheService publishingCacheService = new DirectoryCacheService(
+                redisTemplate, 100_000, Duration.ofMinutes(5), true
+        );
+
+        publishingCacheService.invalidate("user-1-files/docs/");
+
+        verify(redisTemplate).convertAndSend(DirectoryCacheService.INVALIDATION_CHANNEL, "user-1-files/docs/");
+    }
+
+    @Test
+    void localInvalidationIsNotPublishedTest() {
+        directoryCacheService.invalidate("user-1-files/docs/");
+
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+    }
+
+    private List<String> reloadAll() {
+        FOLDERS.forEach(this::getContents);
+        return loadedFolders;
+    }
+
+    private List<ResourcesResponse> getContents(String folderPath) {
+        return directoryCacheService.getDirectoryContents(folderPath, path -> {
+            loadedFolders.add(path);
+            return List.of(ResourcesResponse.builder().path(path + "file.txt").build());
+        });
+    }
+}
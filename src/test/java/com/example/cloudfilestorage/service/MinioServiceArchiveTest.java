@@ -0,0 +1,160 @@
+package com.example.cloudfilestorage.service;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.model.ArchiveEntry;
+import com.example.cloudfilestorage.core.service.MinioService;
+import com.example.cloudfilestorage.core.storage.StorageBackend;
+import com.example.cloudfilestorage.core.storage.StorageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MinioServiceArchiveTest {
+
+    @Mock
+    private StorageBackend storageBackend;
+
+    private ThreadPoolTaskExecutor storageTaskExecutor;
+
+    private MinioService minioService;
+
+    @BeforeEach
+    void setUp() {
+        storageTaskExecutor = new ThreadPoolTaskExecutor();
+        storageTaskExecutor.setCorePoolSize(8);
+        storageTaskExecutor.setMaxPoolSize(8);
+        storageTaskExecutor.initialize();
+
+        minioService = new MinioService(
+                storageBackend, null, storageTaskExecutor, new StorageMetrics(new SimpleMeterRegistry())
+        );
+        ReflectionTestUtils.setField(minioService, "zipPrefetchConcurrency", 8);
+        ReflectionTestUtils.setField(minioService, "zipMaxBytesInFlight", DataSize.ofBytes(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        storageTaskExecutor.shutdown();
+    }
+
+    @Test
+    void archiveEntriesKeepListingOrderTest() throws Exception {
+        when(storageBackend.get(anyString())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            if (key.equals("docs/a.txt")) {
+                Thread.sleep(100);
+            }
+            return new ByteArrayInputStream(key.getBytes(StandardCharsets.UTF_8));
+        });
+
+        List<ArchiveEntry> entries = List.of(
+                new ArchiveEntry("a.txt", "docs/a.txt", 10),
+                new ArchiveEntry("b.txt", "docs/b.txt", 10),
+                new ArchiveEntry("nested/", null, 0),
+                new ArchiveEntry("nested/c.txt", "docs/nested/c.txt", 17),
+                new ArchiveEntry("large.bin", "docs/large.bin", 100)
+        );
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        minioService.writeArchive(entries.iterator(), outputStream);
+
+        Map<String, String> archive = readArchive(outputStream.toByteArray());
+        assertEquals(List.of("a.txt", "b.txt", "nested/", "nested/c.txt", "large.bin"), new ArrayList<>(archive.keySet()));
+        assertEquals("docs/a.txt", archive.get("a.txt"));
+        assertEquals("docs/nested/c.txt", archive.get("nested/c.txt"));
+        assertEquals("docs/large.bin", archive.get("large.bin"));
+    }
+
+    @Test
+    void prefetchedBytesStayUnderLimitTest() throws Exception {
+        CountDownLatch firstObjectReleased = new CountDownLatch(1);
+        AtomicInteger fetchedObjects = new AtomicInteger();
+        when(storageBackend.get(anyString())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            fetchedObjects.incrementAndGet();
+            if (key.equals("0.txt")) {
+                firstObjectReleased.await();
+            }
+            return new ByteArrayInputStream(new byte[10]);
+        });
+
+        List<ArchiveEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            entries.add(new ArchiveEntry(i + ".txt", i + ".txt", 10));
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        CompletableFuture<Void> archive = CompletableFuture.runAsync(() ->
+                minioService.writeArchive(entries.iterator(), outputStream)
+        );
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> fetchedObjects.get() == 3);
+        await().during(Duration.ofMillis(300)).atMost(Duration.ofSeconds(1)).until(() -> fetchedObjects.get() == 3);
+
+        firstObjectReleased.countDown();
+        archive.get(5, TimeUnit.SECONDS);
+
+        assertEquals(6, fetchedObjects.get());
+        assertEquals(6, readArchive(outputStream.toByteArray()).size());
+    }
+
+    @Test
+    void failedPrefetchTestToException() {
+        when(storageBackend.get(anyString())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0).equals("b.txt")) {
+                throw new FailedResourceOperationsException("Объект недоступен");
+            }
+            return new ByteArrayInputStream(new byte[10]);
+        });
+
+        List<ArchiveEntry> entries = List.of(
+                new ArchiveEntry("a.txt", "a.txt", 10),
+                new ArchiveEntry("b.txt", "b.txt", 10),
+                new ArchiveEntry("c.txt", "c.txt", 10)
+        );
+
+        FailedResourceOperationsException exception = assertThrows(FailedResourceOperationsException.class, () ->
+                minioService.writeArchive(entries.iterator(), new ByteArrayOutputStream())
+        );
+        assertEquals("Объект недоступен", exception.getMessage());
+    }
+
+    private static Map<String, String> readArchive(byte[] archive) throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zis.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
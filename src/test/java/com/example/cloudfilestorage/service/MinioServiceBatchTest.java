@@ -0,0 +1,100 @@
+package com.example.cloudfilestorage.service;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.model.StoredObject;
+import com.example.cloudfilestorage.core.service.MinioService;
+import com.example.cloudfilestorage.core.storage.StorageBackend;
+import com.example.cloudfilestorage.core.storage.StorageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MinioServiceBatchTest {
+
+    @Mock
+    private StorageBackend storageBackend;
+
+    private ThreadPoolTaskExecutor storageTaskExecutor;
+
+    private MinioService minioService;
+
+    @BeforeEach
+    void setUp() {
+        storageTaskExecutor = new ThreadPoolTaskExecutor();
+        storageTaskExecutor.setCorePoolSize(4);
+        storageTaskExecutor.setMaxPoolSize(4);
+        storageTaskExecutor.initialize();
+
+        minioService = new MinioService(
+                storageBackend, null, storageTaskExecutor, new StorageMetrics(new SimpleMeterRegistry())
+        );
+        ReflectionTestUtils.setField(minioService, "copyConcurrency", 1);
+        ReflectionTestUtils.setField(minioService, "deleteConcurrency", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        storageTaskExecutor.shutdown();
+    }
+
+    @Test
+    void failedFolderCopyRemovesCopiedObjectsTestToException() {
+        when(storageBackend.list("user-1-files/docs/", null, true)).thenReturn(List.of(
+                new StoredObject("user-1-files/docs/a.txt", 1, false),
+                new StoredObject("user-1-files/docs/b.txt", 1, false),
+                new StoredObject("user-1-files/docs/c.txt", 1, false)
+        ).iterator());
+        doThrow(new FailedResourceOperationsException("Доступ запрещён"))
+                .when(storageBackend).copy("user-1-files/docs/b.txt", "user-1-files/archive/b.txt");
+        when(storageBackend.delete(List.of("user-1-files/archive/a.txt"))).thenReturn(Map.of());
+
+        FailedResourceOperationsException exception = assertThrows(FailedResourceOperationsException.class, () ->
+                minioService.copyFolder("user-1-files/docs/", "user-1-files/archive/")
+        );
+
+        assertTrue(exception.getMessage().contains("user-1-files/docs/b.txt"));
+        verify(storageBackend).copy("user-1-files/docs/a.txt", "user-1-files/archive/a.txt");
+        verify(storageBackend, never()).copy(eq("user-1-files/docs/c.txt"), anyString());
+        verify(storageBackend).delete(List.of("user-1-files/archive/a.txt"));
+    }
+
+    @Test
+    void deleteSplitsKeysIntoBatchesAndReportsFailedKeysTest() {
+        List<String> keys = IntStream.range(0, 2500).mapToObj(i -> "objects/" + i).toList();
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        when(storageBackend.delete(anyList())).thenAnswer(invocation -> {
+            List<String> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return batch.contains("objects/1500") ? Map.of("objects/1500", "Доступ запрещён") : Map.of();
+        });
+
+        Map<String, String> failedObjects = minioService.tryDeleteObjectsInStorage(keys);
+
+        assertEquals(Map.of("objects/1500", "Доступ запрещён"), failedObjects);
+        assertEquals(List.of(500, 1000, 1000), batchSizes.stream().sorted().toList());
+
+        FailedResourceOperationsException exception = assertThrows(FailedResourceOperationsException.class, () ->
+                minioService.deleteObjectsInStorage(keys)
+        );
+        assertTrue(exception.getMessage().contains("objects/1500"));
+        verify(storageBackend, times(6)).delete(anyList());
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.cloudfilestorage.service;
 
+import com.example.cloudfilestorage.api.dto.DirectoryPageResponse;
 import com.example.cloudfilestorage.api.dto.ResourcesResponse;
-import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
 import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
 import com.example.cloudfilestorage.core.exception.ResourceException.FolderDoesNotExistException;
+import com.example.cloudfilestorage.core.model.User;
 import com.example.cloudfilestorage.core.service.MinioService;
+import com.example.cloudfilestorage.core.service.ResourceService;
+import com.example.cloudfilestorage.core.service.UserService;
 import com.example.cloudfilestorage.core.utilities.ResourcesType;
 import io.minio.*;
 import io.minio.messages.Item;
@@ -14,22 +18,29 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.web.multipart.MultipartFile;
 import org.testcontainers.containers.MinIOContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static io.minio.MakeBucketArgs.builder;
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.when;
 
 @SpringBootTest
 @Testcontainers
@@ -46,6 +57,12 @@ class MinioServiceTest {
     @Autowired
     private MinioClient minioClient;
 
+    @Autowired
+    private ResourceService resourceService;
+
+    @MockitoBean
+    private UserService userService;
+
     private static final String BUCKET = "user-files";
 
     @DynamicPropertySource
@@ -54,6 +71,7 @@ class MinioServiceTest {
         registry.add("minio.accessKey", MINIO_CONTAINER::getUserName);
         registry.add("minio.secretKey", MINIO_CONTAINER::getPassword);
         registry.add("minio.buckets.user-files-bucket", () -> BUCKET);
+        registry.add("minio.upload.part-size", () -> "5MB");
     }
 
     @BeforeEach
@@ -153,6 +171,17 @@ class MinioServiceTest {
         assertTrue(minioService.isFileExist(fileName));
     }
 
+    @Test
+    void loadExistFileIfAbsentTestToException() throws Exception {
+        String fileName = "test-file.txt";
+
+        minioService.loadFileInStorage(createTextMockFile(fileName, "Pervaya versiya."), fileName, true);
+
+        assertThrows(FileAlreadyExistException.class, () ->
+                minioService.loadFileInStorage(createTextMockFile(fileName, "Vtoraya versiya."), fileName, true)
+        );
+    }
+
     @Test
     void deleteFileTest() throws Exception {
         String content = "Do do do sogli sogli.";
@@ -205,11 +234,24 @@ class MinioServiceTest {
         assertEquals(content, new String(inputStream.readAllBytes()));
     }
 
+    @Test
+    void getFileRangeTest() throws Exception {
+        String content = "Do do do sogli sogli.";
+        String absolutePath = "kwirit/folder1/file.txt";
+
+        putInStorage(createTextMockFile("file.txt", content), absolutePath);
+
+        InputStream inputStream = minioService.getFile(absolutePath, 3, 5);
+
+        assertEquals(content.substring(3, 8), new String(inputStream.readAllBytes()));
+        assertEquals(content.length(), minioService.statFile(absolutePath).getSize());
+    }
+
     @Test
     void getFileTestToException() throws Exception {
         String folderName = "kwirit/folder0123/folder1/hehe.jpeg";
 
-        assertThrows(FailedResourceOperationsException.class, () -> {
+        assertThrows(FileDoesNotExistException.class, () -> {
             minioService.getFile(folderName);
         });
     }
@@ -273,11 +315,12 @@ class MinioServiceTest {
         putInStorage(file1, folderPath1);
         putInStorage(file2, folderPath1);
 
-        minioService.copyFolder(folderPath1, folderPath2);
+        long copied = minioService.copyFolder(folderPath1, folderPath2);
         minioService.deleteFolderInStorage(folderPath1);
 
         await().atMost(3, TimeUnit.SECONDS).untilAsserted(() ->
                 assertAll("Проверка копирования",
+                        () -> assertEquals(2, copied),
                         () -> assertThrows(FolderDoesNotExistException.class, () -> {
                             minioService.isFolderExist(folderPath1);
                         }),
@@ -286,6 +329,65 @@ class MinioServiceTest {
         );
     }
 
+    @Test
+    void writeFolderAsZipTest() throws Exception {
+        String path = "kwirit/folder1/";
+        putInStorage(createTextMockFile("a.txt", "first"), path + "a.txt");
+        putInStorage(createTextMockFile("b.txt", "second"), path + "folder2/b.txt");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        minioService.writeFolderAsZip(path, outputStream);
+
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.add(entry.getName() + ":" + new String(zis.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertEquals(List.of("a.txt:first", "folder2/b.txt:second"), entries);
+    }
+
+    @Test
+    void loadStreamInStorageMultipartTest() throws Exception {
+        String objectName = "kwirit/large-file.bin";
+        byte[] content = new byte[11 * 1024 * 1024];
+        new Random(42).nextBytes(content);
+
+        long size = minioService.loadStreamInStorage(
+                new ByteArrayInputStream(content), objectName, "application/octet-stream"
+        );
+
+        assertEquals(content.length, size);
+        assertArrayEquals(content, minioService.getFile(objectName).readAllBytes());
+    }
+
+    @Test
+    void directoryPagesDoNotRepeatFolderAtPageBoundaryTest() throws Exception {
+        User user = new User("testuser", "encodedPassword");
+        user.setId(1);
+        when(userService.getCurrentUser()).thenReturn(user);
+
+        putInStorage(createTextMockFile("a.txt", "A"), "user-1-files/docs/a.txt");
+        putInStorage(createTextMockFile("x.txt", "X"), "user-1-files/docs/b/x.txt");
+        putInStorage(createTextMockFile("y.txt", "Y"), "user-1-files/docs/b/y.txt");
+        putInStorage(createTextMockFile("c.txt", "C"), "user-1-files/docs/c.txt");
+
+        List<String> paths = new ArrayList<>();
+        String cursor = null;
+        do {
+            DirectoryPageResponse page = resourceService.getDirectoryPageProcessing("docs/", cursor, 1, false);
+            page.getItems().forEach(item -> paths.add(item.getPath()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(
+                List.of("user-1-files/docs/a.txt", "user-1-files/docs/b/", "user-1-files/docs/c.txt"),
+                paths
+        );
+    }
+
     @Test
     void getFileSizeTest() throws Exception {
         String content = "Bombordiro-crocodilo.";
@@ -0,0 +1,108 @@
+package com.example.cloudfilestorage.service;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.QuotaExceededException;
+import com.example.cloudfilestorage.core.model.User;
+import com.example.cloudfilestorage.core.service.QuotaService;
+import com.example.cloudfilestorage.core.service.ResourcePersistenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuotaServiceTest {
+
+    @Mock
+    private ResourcePersistenceService resourcePersistenceService;
+
+    @InjectMocks
+    private QuotaService quotaService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(quotaService, "quotaLimit", DataSize.ofBytes(100));
+        ReflectionTestUtils.setField(quotaService, "reconcileBatchSize", 2);
+        ReflectionTestUtils.setField(quotaService, "reservationChunk", DataSize.ofBytes(10));
+
+        user = new User("testuser", "encodedPassword");
+        user.setId(1);
+    }
+
+    @Test
+    void uploadWithinQuotaTest() {
+        when(resourcePersistenceService.getUsedBytes(1)).thenReturn(60L);
+
+        assertDoesNotThrow(() -> quotaService.checkQuota(user, 40));
+    }
+
+    @Test
+    void uploadOverQuotaTestToException() {
+        when(resourcePersistenceService.getUsedBytes(1)).thenReturn(60L);
+
+        assertThrows(QuotaExceededException.class, () -> quotaService.checkQuota(user, 41));
+    }
+
+    @Test
+    void reserveOverQuotaTestToException() {
+        when(resourcePersistenceService.reserveUsedBytes(1, 41, 100)).thenReturn(false);
+        when(resourcePersistenceService.getUsedBytes(1)).thenReturn(60L);
+
+        assertThrows(QuotaExceededException.class, () -> quotaService.reserve(user, 41));
+    }
+
+    @Test
+    void streamReservesInChunksTest() throws Exception {
+        when(resourcePersistenceService.reserveUsedBytes(1, 10, 100)).thenReturn(true);
+
+        QuotaService.ReservingInputStream inputStream = quotaService.reserveWhileReading(
+                user, new ByteArrayInputStream(new byte[25])
+        );
+        byte[] buffer = new byte[8];
+        while (inputStream.read(buffer, 0, buffer.length) >= 0) {
+        }
+
+        assertEquals(30, inputStream.getReservedBytes());
+        verify(resourcePersistenceService, times(3)).reserveUsedBytes(1, 10, 100);
+    }
+
+    @Test
+    void streamOverQuotaTestToException() {
+        when(resourcePersistenceService.reserveUsedBytes(1, 10, 100)).thenReturn(true, false);
+        when(resourcePersistenceService.reserveUsedBytes(1, 6, 100)).thenReturn(false);
+
+        QuotaService.ReservingInputStream inputStream = quotaService.reserveWhileReading(
+                user, new ByteArrayInputStream(new byte[25])
+        );
+        byte[] buffer = new byte[8];
+
+        assertThrows(QuotaExceededException.class, () -> {
+            while (inputStream.read(buffer, 0, buffer.length) >= 0) {
+            }
+        });
+        assertEquals(10, inputStream.getReservedBytes());
+        assertNotNull(inputStream.getQuotaExceeded());
+    }
+
+    @Test
+    void reconcileUsageWalksAllUsersInBatchesTest() {
+        when(resourcePersistenceService.reconcileUsedBytes(0, 2)).thenReturn(List.of(1L, 2L));
+        when(resourcePersistenceService.reconcileUsedBytes(2, 2)).thenReturn(List.of(5L, 7L));
+        when(resourcePersistenceService.reconcileUsedBytes(7, 2)).thenReturn(List.of());
+
+        quotaService.reconcileUsage();
+
+        verify(resourcePersistenceService, times(3)).reconcileUsedBytes(anyLong(), eq(2));
+    }
+}
@@ -0,0 +1,434 @@
+package com.example.cloudfilestorage.service;
+
+import com.example.cloudfilestorage.api.dto.ResourcesResponse;
+import com.example.cloudfilestorage.api.mapper.ResourceMapperImpl;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
+import com.example.cloudfilestorage.core.model.PersistedUploads;
+import com.example.cloudfilestorage.core.model.UploadedObject;
+import com.example.cloudfilestorage.core.model.User;
+import com.example.cloudfilestorage.core.repository.UserRepository;
+import com.example.cloudfilestorage.core.service.ResourcePersistenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.cloudfilestorage.core.utilities.PathUtilsService.getUserFolder;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ResourcePersistenceService.class, ResourceMapperImpl.class})
+class ResourcePersistenceServiceTest {
+
+    private static final Duration RETENTION = Duration.ofDays(7);
+    private static final String DIGEST = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Autowired
+    private ResourcePersistenceService resourcePersistenceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private User user;
+
+    private String userFolder;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("testuser", "encodedPassword"));
+        userFolder = getUserFolder(user) + "/";
+    }
+
+    @Test
+    void purgeDeletedQueuesObjectsInsteadOfDeletingTest() {
+        upload("docs/a.txt", "objects/a", 10);
+        upload("docs/b.txt", "objects/b", 20);
+        resourcePersistenceService.markDeleted(userFolder + "docs/");
+        expireDeleted();
+
+        int purged = resourcePersistenceService.purgeDeleted(Instant.now().minus(RETENTION), 100);
+
+        assertEquals(3, purged);
+        assertEquals(List.of(), jdbcTemplate.queryForList(
+                "select file_path from resources where owner_id = ?", String.class, user.getId()
+        ));
+        assertEquals(
+                List.of("objects/a", "objects/b"),
+                resourcePersistenceService.getPendingObjectDeletions(100).stream().sorted().toList()
+        );
+        assertEquals(0, resourcePersistenceService.getUsedBytes(user.getId()));
+
+        resourcePersistenceService.completeObjectDeletions(List.of("objects/a"));
+
+        assertEquals(List.of("objects/b"), resourcePersistenceService.getPendingObjectDeletions(0, 100));
+        assertTrue(resourcePersistenceService.getPendingObjectDeletions(1, 100).isEmpty());
+
+        resourcePersistenceService.completeObjectDeletions(List.of("objects/b"));
+
+        assertTrue(resourcePersistenceService.getPendingObjectDeletions(100).isEmpty());
+    }
+
+    @Test
+    void purgeDeletedKeepsResourcesInsideRetentionTest() {
+        upload("docs/a.txt", "objects/a", 10);
+        resourcePersistenceService.markDeleted(userFolder + "docs/a.txt");
+
+        assertEquals(0, resourcePersistenceService.purgeDeleted(Instant.now().minus(RETENTION), 100));
+        assertTrue(resourcePersistenceService.getPendingObjectDeletions(100).isEmpty());
+    }
+
+    @Test
+    void restoreDeletedInsideRetentionTest() {
+        upload("docs/a.txt", "objects/a", 10);
+        resourcePersistenceService.markDeleted(userFolder + "docs/a.txt");
+
+        resourcePersistenceService.restoreDeleted(userFolder + "docs/a.txt", Instant.now().minus(RETENTION));
+
+        assertTrue(resourcePersistenceService.isResourceExist(userFolder + "docs/a.txt"));
+    }
+
+    @Test
+    void restoreDeletedAfterRetentionTestToException() {
+        upload("docs/a.txt", "objects/a", 10);
+        resourcePersistenceService.markDeleted(userFolder + "docs/a.txt");
+        expireDeleted();
+
+        assertThrows(FileDoesNotExistException.class, () ->
+                resourcePersistenceService.restoreDeleted(userFolder + "docs/a.txt", Instant.now().minus(RETENTION))
+        );
+        assertFalse(resourcePersistenceService.isResourceExist(userFolder + "docs/a.txt"));
+    }
+
+    @Test
+    void virtualFolderMoveKeepsObjectKeysTest() {
+        upload("docs/a.txt", "objects/a", 10);
+        upload("docs/sub/b.txt", "objects/b", 20);
+
+        resourcePersistenceService.moveResource(userFolder + "docs/", userFolder + "photos/");
+
+        assertEquals(List.of("photos/", "photos/a.txt", "photos/sub/", "photos/sub/b.txt"), userPaths());
+        assertEquals("objects/a", resourcePersistenceService.getObjectKey(userFolder + "photos/a.txt"));
+        assertEquals("objects/b", resourcePersistenceService.getObjectKey(userFolder + "photos/sub/b.txt"));
+        assertEquals("photos", resourcePersistenceService.getResourceInfo(userFolder + "photos/").getName());
+        assertEquals(
+                List.of("a.txt", "sub"),
+                resourcePersistenceService.getDirectoryContents(userFolder + "photos/").stream()
+                        .map(ResourcesResponse::getName)
+                        .toList()
+        );
+        assertFalse(resourcePersistenceService.isResourceExist(userFolder + "docs/a.txt"));
+    }
+
+    @Test
+    void directoryPageUsesNameKeysetTest() {
+        upload("docs/a.txt", "objects/a", 1);
+        upload("docs/b.txt", "objects/b", 1);
+        upload("docs/c.txt", "objects/c", 1);
+        upload("docs/sub/d.txt", "objects/d", 1);
+        String folder = userFolder + "docs/";
+
+        assertEquals(List.of("a.txt", "b.txt"), pageNames(folder, null, 2, false));
+        assertEquals(List.of("c.txt", "sub"), pageNames(folder, "b.txt", 2, false));
+        assertEquals(List.of(), pageNames(folder, "sub", 2, false));
+        assertEquals(List.of("sub", "c.txt"), pageNames(folder, null, 2, true));
+        assertEquals(List.of("b.txt", "a.txt"), pageNames(folder, "c.txt", 2, true));
+    }
+
+    @Test
+    void reconcileDirectoryAddsMissingAndDropsStaleRowsTest() {
+        upload("docs/stale.txt", "objects/stale", 5);
+        String folder = userFolder + "docs/";
+
+        resourcePersistenceService.reconcileDirectory(folder, List.of(
+                ResourcesResponse.builder().path(folder).name("docs").build(),
+                ResourcesResponse.builder().path(folder + "a.txt").name("a.txt").size(7).build(),
+                ResourcesResponse.builder().path(folder + "sub/").name("sub").build()
+        ), user);
+
+        assertEquals(List.of("a.txt", "sub"), pageNames(folder, null, 10, false));
+        assertEquals(7, resourcePersistenceService.getResourceInfo(folder + "a.txt").getSize());
+    }
+
+    @Test
+    void prefixDeleteEscapesLikeWildcardsTest() {
+        upload("a_b/f.txt", "objects/1", 1);
+        upload("axb/f.txt", "objects/2", 1);
+        upload("100%/f.txt", "objects/3", 1);
+        upload("1000/f.txt", "objects/4", 1);
+
+        assertEquals(2, resourcePersistenceService.deleteResourcesUnder(userFolder + "a_b/"));
+        assertEquals(2, resourcePersistenceService.deleteResourcesUnder(userFolder + "100%/"));
+
+        assertEquals(List.of("1000/", "1000/f.txt", "axb/", "axb/f.txt"), userPaths());
+    }
+
+    @Test
+    void prefixMoveEscapesLikeWildcardsTest() {
+        upload("a_b/f.txt", "objects/1", 1);
+        upload("a_b/sub/g.txt", "objects/2", 1);
+        upload("axb/f.txt", "objects/3", 1);
+        upload("a_bc/f.txt", "objects/4", 1);
+
+        assertEquals(4, resourcePersistenceService.moveResourcesUnder(userFolder + "a_b/", userFolder + "moved/"));
+
+        assertEquals(
+                List.of("a_bc/", "a_bc/f.txt", "axb/", "axb/f.txt", "moved/", "moved/f.txt", "moved/sub/", "moved/sub/g.txt"),
+                userPaths()
+        );
+        assertEquals(
+                List.of("g.txt"),
+                resourcePersistenceService.getDirectoryContents(userFolder + "moved/sub/").stream()
+                        .map(ResourcesResponse::getName)
+                        .toList()
+        );
+    }
+
+    @Test
+    void pooledSequenceMatchesEntityAllocationTest() {
+        assertEquals(50L, jdbcTemplate.queryForObject(
+                "select increment_by from pg_sequences where sequencename = 'resources_id_seq'", Long.class
+        ));
+
+        List<UploadedObject> firstBatch = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            firstBatch.add(new UploadedObject(userFolder + "batch/" + i % 3 + "/f" + i + ".txt", "objects/" + i, 1));
+        }
+        List<UploadedObject> secondBatch = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            secondBatch.add(new UploadedObject(userFolder + "batch/3/f" + i + ".txt", "objects/b" + i, 1));
+        }
+
+        resourcePersistenceService.updateResourcesInfo(firstBatch, user);
+        resourcePersistenceService.updateResourcesInfo(secondBatch, user);
+        testEntityManager.flush();
+
+        assertEquals(185, jdbcTemplate.queryForObject(
+                "select count(distinct id) from resources where owner_id = ?", Integer.class, user.getId()
+        ));
+    }
+
+    @Test
+    void folderTotalsFollowUploadMoveDeleteAndRestoreTest() {
+        upload("docs/a.txt", "objects/a", 10);
+        upload("docs/sub/b.txt", "objects/b", 20);
+        upload("other/c.txt", "objects/c", 5);
+
+        assertEquals("30/2", folderTotals("docs/"));
+        assertEquals("20/1", folderTotals("docs/sub/"));
+        assertEquals("5/1", folderTotals("other/"));
+
+        resourcePersistenceService.moveResourcesUnder(userFolder + "docs/sub/", userFolder + "other/sub/");
+
+        assertEquals("10/1", folderTotals("docs/"));
+        assertEquals("25/2", folderTotals("other/"));
+        assertEquals("20/1", folderTotals("other/sub/"));
+
+        resourcePersistenceService.markDeleted(userFolder + "docs/a.txt");
+
+        assertEquals("0/0", folderTotals("docs/"));
+
+        resourcePersistenceService.restoreDeleted(userFolder + "docs/a.txt", Instant.now().minus(RETENTION));
+
+        assertEquals("10/1", folderTotals("docs/"));
+
+        resourcePersistenceService.markDeleted(userFolder + "other/sub/");
+
+        assertEquals("5/1", folderTotals("other/"));
+
+        resourcePersistenceService.deleteResource(userFolder + "docs/a.txt");
+
+        assertEquals("0/0", folderTotals("docs/"));
+    }
+
+    @Test
+    void usedBytesFollowUploadsAndDeletesTest() {
+        upload("docs/a.txt", "objects/a", 10);
+        upload("docs/b.txt", "objects/b", 20);
+        upload("tmp/c.txt", "objects/c", 5);
+
+        assertEquals(35, resourcePersistenceService.getUsedBytes(user.getId()));
+
+        resourcePersistenceService.markDeleted(userFolder + "docs/a.txt");
+
+        assertEquals(35, resourcePersistenceService.getUsedBytes(user.getId()));
+
+        resourcePersistenceService.deleteResource(userFolder + "docs/b.txt");
+        resourcePersistenceService.deleteResourcesUnder(userFolder + "tmp/");
+
+        assertEquals(10, resourcePersistenceService.getUsedBytes(user.getId()));
+    }
+
+    @Test
+    void existingPathsAreReturnedAsConflictsTest() {
+        upload("docs/a.txt", "objects/a", 10);
+        assertTrue(resourcePersistenceService.reserveUsedBytes(user.getId(), 30, 100));
+        List<String> removedObjects = new ArrayList<>();
+
+        PersistedUploads persisted = resourcePersistenceService.updateResourcesInfo(List.of(
+                new UploadedObject(userFolder + "docs/a.txt", "objects/a2", 10),
+                new UploadedObject(userFolder + "docs/b.txt", "objects/b", 20)
+        ), user, removedObjects::addAll, 30);
+
+        assertEquals(List.of(userFolder + "docs/a.txt"), persisted.getConflicts());
+        assertEquals(
+                List.of(userFolder + "docs/b.txt"),
+                persisted.getResources().stream().map(ResourcesResponse::getPath).toList()
+        );
+        assertEquals(List.of("objects/a2"), removedObjects);
+        assertEquals(30, resourcePersistenceService.getUsedBytes(user.getId()));
+    }
+
+    @Test
+    void archiveEntriesArePagedByPathTest() {
+        List<UploadedObject> files = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            files.add(new UploadedObject(userFolder + String.format("docs/file%04d.txt", i), "objects/" + i, 1));
+        }
+        resourcePersistenceService.updateResourcesInfo(files, user);
+        upload("docs_other/skip.txt", "objects/skip", 1);
+        testEntityManager.flush();
+
+        List<String> entries = new ArrayList<>();
+        resourcePersistenceService.iterateArchiveEntries(userFolder + "docs/")
+                .forEachRemaining(entry -> entries.add(entry.getEntryName()));
+
+        assertEquals(1001, entries.size());
+        assertEquals("file0000.txt", entries.get(0));
+        assertEquals("file1000.txt", entries.get(1000));
+    }
+
+    @Test
+    void reservedBytesAreSettledByUploadTest() {
+        upload("docs/a.txt", "objects/a", 60);
+
+        assertTrue(resourcePersistenceService.reserveUsedBytes(user.getId(), 30, 100));
+        assertFalse(resourcePersistenceService.reserveUsedBytes(user.getId(), 20, 100));
+        assertEquals(90, resourcePersistenceService.getUsedBytes(user.getId()));
+
+        resourcePersistenceService.updateResourcesInfo(
+                List.of(new UploadedObject(userFolder + "docs/b.txt", "objects/b", 25)), user, objectKeys -> {}, 30
+        );
+
+        assertEquals(85, resourcePersistenceService.getUsedBytes(user.getId()));
+
+        assertTrue(resourcePersistenceService.reserveUsedBytes(user.getId(), 15, 100));
+        resourcePersistenceService.releaseUsedBytes(user.getId(), 15);
+
+        assertEquals(85, resourcePersistenceService.getUsedBytes(user.getId()));
+    }
+
+    @Test
+    void reconcileUsedBytesFixesDriftTest() {
+        upload("docs/a.txt", "objects/a", 10);
+        upload("docs/b.txt", "objects/b", 20);
+        testEntityManager.flush();
+        jdbcTemplate.update("update users set used_bytes = 999 where id = ?", user.getId());
+
+        assertEquals(List.of(user.getId()), resourcePersistenceService.reconcileUsedBytes(user.getId() - 1, 10));
+        assertEquals(30, resourcePersistenceService.getUsedBytes(user.getId()));
+    }
+
+    @Test
+    void duplicateContentSharesBlobUntilLastReferenceIsPurgedTest() {
+        resourcePersistenceService.updateResourcesInfo(List.of(
+                new UploadedObject(userFolder + "a.bin", "objects/blob", 10, DIGEST, true)
+        ), user);
+        String blobKey = resourcePersistenceService.findBlobObjectKey(DIGEST).orElseThrow();
+        resourcePersistenceService.updateResourcesInfo(List.of(
+                new UploadedObject(userFolder + "b.bin", blobKey, 10, DIGEST, false)
+        ), user);
+
+        assertEquals("objects/blob", blobKey);
+        assertEquals("objects/blob", resourcePersistenceService.getObjectKey(userFolder + "b.bin"));
+        assertEquals(2L, blobReferences());
+
+        resourcePersistenceService.markDeleted(userFolder + "a.bin");
+        expireDeleted();
+        resourcePersistenceService.purgeDeleted(Instant.now().minus(RETENTION), 100);
+
+        assertEquals(1L, blobReferences());
+        assertTrue(resourcePersistenceService.getPendingObjectDeletions(100).isEmpty());
+
+        resourcePersistenceService.markDeleted(userFolder + "b.bin");
+        expireDeleted();
+        resourcePersistenceService.purgeDeleted(Instant.now().minus(RETENTION), 100);
+
+        assertTrue(resourcePersistenceService.findBlobObjectKey(DIGEST).isEmpty());
+        assertEquals(List.of("objects/blob"), resourcePersistenceService.getPendingObjectDeletions(100));
+    }
+
+    @Test
+    void concurrentlyStoredDuplicateIsRemovedTest() {
+        resourcePersistenceService.updateResourcesInfo(List.of(
+                new UploadedObject(userFolder + "a.bin", "objects/first", 10, DIGEST, true)
+        ), user);
+        List<String> redundantObjects = new ArrayList<>();
+
+        resourcePersistenceService.updateResourcesInfo(List.of(
+                new UploadedObject(userFolder + "b.bin", "objects/second", 10, DIGEST, true)
+        ), user, redundantObjects::addAll);
+
+        assertEquals(List.of("objects/second"), redundantObjects);
+        assertEquals("objects/first", resourcePersistenceService.getObjectKey(userFolder + "b.bin"));
+        assertEquals(2L, blobReferences());
+    }
+
+    private Long blobReferences() {
+        return jdbcTemplate.queryForObject("select ref_count from blobs where digest = ?", Long.class, DIGEST);
+    }
+
+    private String folderTotals(String path) {
+        return jdbcTemplate.queryForObject(
+                "select size || '/' || item_count from resources where file_path = ? and deleted_at is null",
+                String.class, userFolder + path
+        );
+    }
+
+    private List<String> userPaths() {
+        return jdbcTemplate.queryForList(
+                        "select file_path from resources where owner_id = ? order by file_path collate \"C\"",
+                        String.class, user.getId()
+                ).stream()
+                .map(path -> path.substring(userFolder.length()))
+                .toList();
+    }
+
+    private List<String> pageNames(String folderPath, String afterName, int limit, boolean descending) {
+        return resourcePersistenceService.getDirectoryPage(folderPath, afterName, Limit.of(limit), descending)
+                .stream()
+                .map(ResourcesResponse::getName)
+                .toList();
+    }
+
+    private void upload(String path, String objectKey, long size) {
+        resourcePersistenceService.updateResourcesInfo(
+                List.of(new UploadedObject(userFolder + path, objectKey, size)), user
+        );
+    }
+
+    private void expireDeleted() {
+        jdbcTemplate.update(
+                "update resources set deleted_at = deleted_at - interval '8 days' where owner_id = ? and deleted_at is not null",
+                user.getId()
+        );
+    }
+}
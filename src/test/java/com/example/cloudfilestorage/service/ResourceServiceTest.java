@@ -0,0 +1,552 @@
+package com.example.cloudfilestorage.service;
+
+import com.example.cloudfilestorage.api.dto.DirectoryPageResponse;
+import com.example.cloudfilestorage.api.dto.ResourcesResponse;
+import com.example.cloudfilestorage.api.dto.UploadFailureResponse;
+import com.example.cloudfilestorage.api.dto.UploadReportResponse;
+import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FolderDoesNotExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.InvalidResourceOperationException;
+import com.example.cloudfilestorage.core.exception.ResourceException.QuotaExceededException;
+import com.example.cloudfilestorage.core.model.PersistedUploads;
+import com.example.cloudfilestorage.core.model.UploadedObject;
+import com.example.cloudfilestorage.core.model.User;
+import com.example.cloudfilestorage.core.service.*;
+import com.example.cloudfilestorage.core.utilities.ResourcesType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceServiceTest {
+
+    private static final Duration TRASH_RETENTION = Duration.ofDays(7);
+    private static final String TEST_DIGEST = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ResourcePersistenceService resourcePersistenceService;
+
+    @Mock
+    private MinioService minioService;
+
+    @Mock
+    private ThreadPoolTaskExecutor uploadTaskExecutor;
+
+    @Mock
+    private StorageLayoutService storageLayoutService;
+
+    @Mock
+    private DirectoryCacheService directoryCacheService;
+
+    @Mock
+    private QuotaService quotaService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ResourceService resourceService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(resourceService, "trashRetention", TRASH_RETENTION);
+        ReflectionTestUtils.setField(resourceService, "defaultPageSize", 100);
+        ReflectionTestUtils.setField(resourceService, "maxPageSize", 1000);
+
+        User user = new User("testuser", "encodedPassword");
+        user.setId(1);
+
+        lenient().when(userService.getCurrentUser()).thenReturn(user);
+        lenient().when(storageLayoutService.isVirtualPaths()).thenReturn(true);
+        lenient().when(storageLayoutService.isMetadataListing()).thenReturn(true);
+    }
+
+    @Test
+    void streamUploadInvalidatesFileAncestorsTest() {
+        when(quotaService.reserveWhileReading(any(), any())).thenReturn(mock(QuotaService.ReservingInputStream.class));
+        when(storageLayoutService.newObjectKey("user-1-files/docs/file.txt")).thenReturn("objects/key");
+        when(resourcePersistenceService.updateResourcesInfo(anyList(), any(), any(), anyLong())).thenReturn(new PersistedUploads(List.of(), List.of()));
+
+        resourceService.streamUploadProcessing("docs/", "file.txt", new ByteArrayInputStream(new byte[4]), null);
+
+        InOrder inOrder = inOrder(resourcePersistenceService, directoryCacheService);
+        inOrder.verify(resourcePersistenceService).updateResourcesInfo(anyList(), any(), any(), anyLong());
+        inOrder.verify(directoryCacheService).invalidate("user-1-files/docs/file.txt");
+    }
+
+    @Test
+    void streamUploadOverQuotaReleasesReservationTestToException() {
+        QuotaService.ReservingInputStream reservingStream = mock(QuotaService.ReservingInputStream.class);
+        when(reservingStream.getReservedBytes()).thenReturn(8L);
+        when(reservingStream.getQuotaExceeded()).thenReturn(new QuotaExceededException("Превышена квота"));
+        when(quotaService.reserveWhileReading(any(), any())).thenReturn(reservingStream);
+        when(storageLayoutService.newObjectKey("user-1-files/docs/file.txt")).thenReturn("objects/key");
+        when(minioService.loadStreamInStorage(any(), eq("objects/key"), any()))
+                .thenThrow(new FailedResourceOperationsException("Превышена квота"));
+
+        assertThrows(QuotaExceededException.class, () ->
+                resourceService.streamUploadProcessing("docs/", "file.txt", new ByteArrayInputStream(new byte[4]), null)
+        );
+
+        verify(quotaService).release(any(), eq(8L));
+        verify(resourcePersistenceService, never()).updateResourcesInfo(anyList(), any(), any(), anyLong());
+    }
+
+    @Test
+    void createFolderInvalidatesFolderTest() {
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/")).thenReturn(true);
+
+        resourceService.createNewFolderProcessing("docs/new");
+
+        verify(resourcePersistenceService).updateFolderInfo(eq("new"), eq("user-1-files/docs/new/"), any());
+        verify(directoryCacheService).invalidate("user-1-files/docs/new/");
+    }
+
+    @Test
+    void deleteFileInvalidatesFileAncestorsTest() {
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/file.txt")).thenReturn(true);
+
+        resourceService.deleteResourceProcessing("docs/file.txt");
+
+        verify(resourcePersistenceService).markDeleted("user-1-files/docs/file.txt");
+        verify(directoryCacheService).invalidate("user-1-files/docs/file.txt");
+    }
+
+    @Test
+    void deleteFolderInvalidatesFolderSubtreeTest() {
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/")).thenReturn(true);
+
+        resourceService.deleteResourceProcessing("docs/");
+
+        verify(resourcePersistenceService).markDeleted("user-1-files/docs/");
+        verify(directoryCacheService).invalidate("user-1-files/docs/");
+    }
+
+    @Test
+    void restoreInvalidatesRestoredPathTest() {
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/file.txt")).thenReturn(false);
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/")).thenReturn(true);
+        when(resourcePersistenceService.restoreDeleted(eq("user-1-files/docs/file.txt"), any()))
+                .thenReturn(new ResourcesResponse());
+
+        Instant before = Instant.now();
+        resourceService.restoreResourceProcessing("docs/file.txt");
+
+        ArgumentCaptor<Instant> deletedAfter = ArgumentCaptor.forClass(Instant.class);
+        verify(resourcePersistenceService).restoreDeleted(eq("user-1-files/docs/file.txt"), deletedAfter.capture());
+        assertFalse(deletedAfter.getValue().isBefore(before.minus(TRASH_RETENTION)));
+        assertFalse(deletedAfter.getValue().isAfter(Instant.now().minus(TRASH_RETENTION)));
+        verify(directoryCacheService).invalidate("user-1-files/docs/file.txt");
+    }
+
+    @Test
+    void moveInvalidatesSourceAndTargetTest() {
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/")).thenReturn(true);
+        when(resourcePersistenceService.isResourceExist("user-1-files/archive/docs/")).thenReturn(false);
+        when(resourcePersistenceService.isResourceExist("user-1-files/archive/")).thenReturn(true);
+        when(resourcePersistenceService.moveResource("user-1-files/docs/", "user-1-files/archive/docs/"))
+                .thenReturn(new ResourcesResponse());
+
+        resourceService.moveAndRenameResourceProcessing("docs/", "archive/docs/");
+
+        verify(directoryCacheService).invalidate("user-1-files/docs/");
+        verify(directoryCacheService).invalidate("user-1-files/archive/docs/");
+    }
+
+    @Test
+    void virtualMoveIsMetadataOnlyTest() {
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/report.txt")).thenReturn(true);
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/summary.txt")).thenReturn(false);
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/")).thenReturn(true);
+        when(resourcePersistenceService.moveResource("user-1-files/docs/report.txt", "user-1-files/docs/summary.txt"))
+                .thenReturn(new ResourcesResponse());
+
+        resourceService.moveAndRenameResourceProcessing("docs/report.txt", "docs/summary.txt");
+
+        verify(resourcePersistenceService).moveResource("user-1-files/docs/report.txt", "user-1-files/docs/summary.txt");
+        verifyNoInteractions(minioService);
+    }
+
+    @Test
+    void virtualMoveOntoExistingResourceTestToException() {
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/")).thenReturn(true);
+        when(resourcePersistenceService.isResourceExist("user-1-files/archive/")).thenReturn(true);
+
+        assertThrows(FileAlreadyExistException.class, () ->
+                resourceService.moveAndRenameResourceProcessing("docs/", "archive/")
+        );
+
+        verify(resourcePersistenceService, never()).moveResource(anyString(), anyString());
+        verifyNoInteractions(minioService);
+    }
+
+    @Test
+    void legacyRenameOntoExistingFileTestToException() {
+        when(storageLayoutService.isVirtualPaths()).thenReturn(false);
+        when(minioService.isFileExist("user-1-files/docs/summary.txt")).thenReturn(true);
+
+        assertThrows(FileAlreadyExistException.class, () ->
+                resourceService.moveAndRenameResourceProcessing("docs/report.txt", "docs/summary.txt")
+        );
+
+        verify(minioService, never()).copyFile(anyString(), anyString());
+        verify(minioService, never()).deleteFileInStorage(anyString());
+    }
+
+    @Test
+    void legacyFolderMoveOntoExistingFolderTestToException() {
+        when(storageLayoutService.isVirtualPaths()).thenReturn(false);
+        when(minioService.isFolderExist("user-1-files/archive/docs/")).thenReturn(false);
+        when(resourcePersistenceService.isResourceExist("user-1-files/archive/docs/")).thenReturn(true);
+
+        assertThrows(FileAlreadyExistException.class, () ->
+                resourceService.moveAndRenameResourceProcessing("docs/", "archive/docs/")
+        );
+
+        verify(minioService, never()).moveFolder(anyString(), anyString());
+        verify(resourcePersistenceService, never()).moveResourcesUnder(anyString(), anyString());
+    }
+
+    @Test
+    void failedMutationDoesNotInvalidateTestToException() {
+        when(resourcePersistenceService.isResourceExist(anyString())).thenReturn(false);
+
+        assertThrows(FolderDoesNotExistException.class, () -> resourceService.deleteResourceProcessing("docs/"));
+
+        verify(resourcePersistenceService, never()).markDeleted(anyString());
+        verify(directoryCacheService, never()).invalidate(anyString());
+    }
+
+    @Test
+    void metadataListingSkipsStorageTest() {
+        loadDirectoriesThroughCache();
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/")).thenReturn(true);
+        List<ResourcesResponse> contents = List.of(ResourcesResponse.builder().path("user-1-files/docs/a.txt").build());
+        when(resourcePersistenceService.getDirectoryContents("user-1-files/docs/")).thenReturn(contents);
+
+        assertEquals(contents, resourceService.getInfoAboutContentsDirectory("docs/"));
+
+        verifyNoInteractions(minioService);
+    }
+
+    @Test
+    void metadataListingReconcilesEmptyFolderFromStorageTest() {
+        loadDirectoriesThroughCache();
+        when(storageLayoutService.isVirtualPaths()).thenReturn(false);
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/")).thenReturn(true);
+        List<ResourcesResponse> stored = List.of(ResourcesResponse.builder().path("user-1-files/docs/a.txt").build());
+        when(minioService.getInfoAboutContentsDirectory("user-1-files/docs/")).thenReturn(stored);
+        when(resourcePersistenceService.getDirectoryContents("user-1-files/docs/")).thenReturn(List.of(), stored);
+
+        assertEquals(stored, resourceService.getInfoAboutContentsDirectory("docs/"));
+
+        verify(resourcePersistenceService).reconcileDirectory(eq("user-1-files/docs/"), eq(stored), any());
+    }
+
+    @Test
+    void metadataListingOfMissingFolderTestToException() {
+        loadDirectoriesThroughCache();
+        when(resourcePersistenceService.isResourceExist("user-1-files/missing/")).thenReturn(false);
+
+        assertThrows(FolderDoesNotExistException.class, () ->
+                resourceService.getInfoAboutContentsDirectory("missing/")
+        );
+
+        verify(resourcePersistenceService, never()).getDirectoryContents(anyString());
+    }
+
+    @Test
+    void metadataPageReturnsCursorTest() {
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/")).thenReturn(true);
+        when(resourcePersistenceService.getDirectoryPage("user-1-files/docs/", null, Limit.of(3), false))
+                .thenReturn(List.of(resource("a.txt"), resource("b.txt"), resource("c.txt")));
+        when(resourcePersistenceService.getDirectoryPage("user-1-files/docs/", "b.txt", Limit.of(3), false))
+                .thenReturn(List.of(resource("c.txt")));
+
+        DirectoryPageResponse firstPage = resourceService.getDirectoryPageProcessing("docs/", null, 2, false);
+
+        assertEquals(List.of(resource("a.txt"), resource("b.txt")), firstPage.getItems());
+        assertNotNull(firstPage.getNextCursor());
+
+        DirectoryPageResponse lastPage = resourceService.getDirectoryPageProcessing(
+                "docs/", firstPage.getNextCursor(), 2, false
+        );
+
+        assertEquals(List.of(resource("c.txt")), lastPage.getItems());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void storagePageStartsAfterCursorTest() {
+        when(storageLayoutService.isMetadataListing()).thenReturn(false);
+        when(minioService.iterateDirectoryContents("user-1-files/docs/", null))
+                .thenReturn(List.of(resource("a.txt"), resource("b.txt")).iterator());
+        when(minioService.iterateDirectoryContents("user-1-files/docs/", "user-1-files/docs/a.txt"))
+                .thenReturn(List.of(resource("b.txt")).iterator());
+
+        DirectoryPageResponse firstPage = resourceService.getDirectoryPageProcessing("docs/", null, 1, false);
+        DirectoryPageResponse lastPage = resourceService.getDirectoryPageProcessing(
+                "docs/", firstPage.getNextCursor(), 1, false
+        );
+
+        assertEquals(List.of(resource("a.txt")), firstPage.getItems());
+        assertEquals(List.of(resource("b.txt")), lastPage.getItems());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void storagePageAfterFolderSkipsFolderContentsTest() {
+        when(storageLayoutService.isMetadataListing()).thenReturn(false);
+        when(minioService.iterateDirectoryContents("user-1-files/docs/", null)).thenReturn(List.of(
+                ResourcesResponse.builder().path("user-1-files/docs/b/").name("b").type(ResourcesType.DIRECTORY).build(),
+                resource("c.txt")
+        ).iterator());
+        when(minioService.iterateDirectoryContents(
+                "user-1-files/docs/", "user-1-files/docs/b/" + Character.toString(Character.MAX_CODE_POINT)
+        )).thenReturn(List.of(resource("c.txt")).iterator());
+
+        DirectoryPageResponse firstPage = resourceService.getDirectoryPageProcessing("docs/", null, 1, false);
+        DirectoryPageResponse lastPage = resourceService.getDirectoryPageProcessing(
+                "docs/", firstPage.getNextCursor(), 1, false
+        );
+
+        assertEquals(List.of(resource("c.txt")), lastPage.getItems());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void invalidPageRequestTestToException() {
+        assertThrows(InvalidResourceOperationException.class, () ->
+                resourceService.getDirectoryPageProcessing("docs/", null, 0, false)
+        );
+        assertThrows(InvalidResourceOperationException.class, () ->
+                resourceService.getDirectoryPageProcessing("docs/", null, 1001, false)
+        );
+        assertThrows(InvalidResourceOperationException.class, () ->
+                resourceService.getDirectoryPageProcessing("docs/", "не курсор", 10, false)
+        );
+
+        when(storageLayoutService.isMetadataListing()).thenReturn(false);
+        assertThrows(InvalidResourceOperationException.class, () ->
+                resourceService.getDirectoryPageProcessing("docs/", null, 10, true)
+        );
+
+        verifyNoInteractions(minioService);
+    }
+
+    @Test
+    void streamedListingWritesNdjsonPagesTest() throws Exception {
+        ReflectionTestUtils.setField(resourceService, "maxPageSize", 2);
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/")).thenReturn(true);
+        when(resourcePersistenceService.getDirectoryPage("user-1-files/docs/", null, Limit.of(2), false))
+                .thenReturn(List.of(resource("a.txt"), resource("b.txt")));
+        when(resourcePersistenceService.getDirectoryPage("user-1-files/docs/", "b.txt", Limit.of(2), false))
+                .thenReturn(List.of(resource("c.txt")));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        resourceService.streamDirectoryContentsProcessing("docs/").writeTo(outputStream);
+
+        List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals(resource("a.txt"), objectMapper.readValue(lines.get(0), ResourcesResponse.class));
+        assertEquals(resource("c.txt"), objectMapper.readValue(lines.get(2), ResourcesResponse.class));
+    }
+
+    @Test
+    void multiFileUploadRunsConcurrentlyAndPersistsOnceTest() {
+        when(storageLayoutService.isVirtualPaths()).thenReturn(false);
+        runUploadsOnNewThreads();
+        CountDownLatch allUploadsStarted = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            allUploadsStarted.countDown();
+            assertTrue(allUploadsStarted.await(5, TimeUnit.SECONDS));
+            return null;
+        }).when(minioService).loadFileInStorage(any(), anyString(), eq(true));
+        when(quotaService.reserve(any(), eq(15L))).thenReturn(15L);
+        when(resourcePersistenceService.updateResourcesInfo(anyList(), any(), any(), anyLong())).thenReturn(new PersistedUploads(List.of(), List.of()));
+
+        UploadReportResponse report = resourceService.fileUploadProcessing("docs/", new MultipartFile[]{
+                file("a.txt", 4), file("b.txt", 5), file("c.txt", 6)
+        });
+
+        assertTrue(report.getFailed().isEmpty());
+        ArgumentCaptor<List<UploadedObject>> uploaded = ArgumentCaptor.forClass(List.class);
+        verify(resourcePersistenceService, times(1)).updateResourcesInfo(uploaded.capture(), any(), any(), eq(15L));
+        verify(quotaService, never()).release(any(), anyLong());
+        assertEquals(
+                List.of("user-1-files/docs/a.txt", "user-1-files/docs/b.txt", "user-1-files/docs/c.txt"),
+                uploaded.getValue().stream().map(UploadedObject::getPath).toList()
+        );
+    }
+
+    @Test
+    void multiFileUploadReportsFailedFilesTest() {
+        when(storageLayoutService.isVirtualPaths()).thenReturn(false);
+        runUploadsOnNewThreads();
+        doThrow(new FileAlreadyExistException()).when(minioService)
+                .loadFileInStorage(any(), eq("user-1-files/docs/b.txt"), eq(true));
+        when(resourcePersistenceService.updateResourcesInfo(anyList(), any(), any(), anyLong())).thenReturn(new PersistedUploads(List.of(), List.of()));
+
+        UploadReportResponse report = resourceService.fileUploadProcessing("docs/", new MultipartFile[]{
+                file("a.txt", 4), file("b.txt", 5)
+        });
+
+        assertEquals(List.of(new UploadFailureResponse("b.txt", "Файл b.txt уже существует")), report.getFailed());
+        ArgumentCaptor<List<UploadedObject>> uploaded = ArgumentCaptor.forClass(List.class);
+        verify(resourcePersistenceService).updateResourcesInfo(uploaded.capture(), any(), any(), anyLong());
+        assertEquals(
+                List.of("user-1-files/docs/a.txt"),
+                uploaded.getValue().stream().map(UploadedObject::getPath).toList()
+        );
+        verify(directoryCacheService).invalidate("user-1-files/docs/a.txt");
+        verify(directoryCacheService, never()).invalidate("user-1-files/docs/b.txt");
+    }
+
+    @Test
+    void multiFileUploadReportsPathsTakenConcurrentlyTest() {
+        when(storageLayoutService.newObjectKey(anyString())).thenReturn("objects/a", "objects/b");
+        runUploadsOnNewThreads();
+        when(resourcePersistenceService.updateResourcesInfo(anyList(), any(), any(), anyLong())).thenReturn(
+                new PersistedUploads(List.of(resource("a.txt")), List.of("user-1-files/docs/b.txt"))
+        );
+
+        UploadReportResponse report = resourceService.fileUploadProcessing("docs/", new MultipartFile[]{
+                file("a.txt", 4), file("b.txt", 5)
+        });
+
+        assertEquals(List.of(resource("a.txt")), report.getUploaded());
+        assertEquals(List.of(new UploadFailureResponse("b.txt", "Файл b.txt уже существует")), report.getFailed());
+        verify(directoryCacheService).invalidate("user-1-files/docs/a.txt");
+        verify(directoryCacheService, never()).invalidate("user-1-files/docs/b.txt");
+    }
+
+    @Test
+    void streamUploadOntoPathTakenConcurrentlyTestToException() {
+        when(quotaService.reserveWhileReading(any(), any())).thenReturn(mock(QuotaService.ReservingInputStream.class));
+        when(storageLayoutService.newObjectKey("user-1-files/docs/file.txt")).thenReturn("objects/key");
+        when(resourcePersistenceService.updateResourcesInfo(anyList(), any(), any(), anyLong())).thenReturn(
+                new PersistedUploads(List.of(), List.of("user-1-files/docs/file.txt"))
+        );
+
+        assertThrows(FileAlreadyExistException.class, () ->
+                resourceService.streamUploadProcessing("docs/", "file.txt", new ByteArrayInputStream(new byte[4]), null)
+        );
+
+        verify(quotaService, never()).release(any(), anyLong());
+        verify(directoryCacheService, never()).invalidate(anyString());
+    }
+
+    @Test
+    void multiFileUploadWithoutSuccessTestToException() {
+        when(storageLayoutService.isVirtualPaths()).thenReturn(false);
+        runUploadsOnNewThreads();
+        doThrow(new FileAlreadyExistException()).when(minioService).loadFileInStorage(any(), anyString(), eq(true));
+        when(quotaService.reserve(any(), eq(4L))).thenReturn(4L);
+
+        assertThrows(FileAlreadyExistException.class, () ->
+                resourceService.fileUploadProcessing("docs/", new MultipartFile[]{file("a.txt", 4)})
+        );
+
+        verify(resourcePersistenceService, never()).updateResourcesInfo(anyList(), any(), any(), anyLong());
+        verify(quotaService).release(any(), eq(4L));
+    }
+
+    private static ResourcesResponse resource(String name) {
+        return ResourcesResponse.builder()
+                .path("user-1-files/docs/" + name)
+                .name(name)
+                .type(ResourcesType.FILE)
+                .build();
+    }
+
+    private void loadDirectoriesThroughCache() {
+        when(directoryCacheService.getDirectoryContents(anyString(), any())).thenAnswer(invocation ->
+                invocation.<Function<String, List<ResourcesResponse>>>getArgument(1).apply(invocation.getArgument(0))
+        );
+    }
+
+    @Test
+    void duplicateContentIsNotStoredAgainTest() {
+        when(storageLayoutService.isContentAddressed()).thenReturn(true);
+        runUploadsOnNewThreads();
+        when(resourcePersistenceService.findBlobObjectKey(TEST_DIGEST)).thenReturn(Optional.of("objects/blob"));
+        when(resourcePersistenceService.updateResourcesInfo(anyList(), any(), any(), anyLong())).thenReturn(new PersistedUploads(List.of(), List.of()));
+
+        resourceService.fileUploadProcessing("docs/", new MultipartFile[]{
+                new MockMultipartFile("file", "a.txt", "text/plain", "test".getBytes(StandardCharsets.UTF_8))
+        });
+
+        ArgumentCaptor<List<UploadedObject>> uploaded = ArgumentCaptor.forClass(List.class);
+        verify(resourcePersistenceService).updateResourcesInfo(uploaded.capture(), any(), any(), anyLong());
+        UploadedObject uploadedObject = uploaded.getValue().get(0);
+        assertEquals("objects/blob", uploadedObject.getObjectKey());
+        assertEquals(TEST_DIGEST, uploadedObject.getDigest());
+        assertFalse(uploadedObject.isStored());
+        verifyNoInteractions(minioService);
+    }
+
+    @Test
+    void newContentIsStoredUnderFreshKeyTest() {
+        when(storageLayoutService.isContentAddressed()).thenReturn(true);
+        runUploadsOnNewThreads();
+        when(resourcePersistenceService.findBlobObjectKey(TEST_DIGEST)).thenReturn(Optional.empty());
+        when(storageLayoutService.newObjectKey("user-1-files/docs/a.txt")).thenReturn("objects/new");
+        when(resourcePersistenceService.updateResourcesInfo(anyList(), any(), any(), anyLong())).thenReturn(new PersistedUploads(List.of(), List.of()));
+
+        resourceService.fileUploadProcessing("docs/", new MultipartFile[]{
+                new MockMultipartFile("file", "a.txt", "text/plain", "test".getBytes(StandardCharsets.UTF_8))
+        });
+
+        verify(minioService).loadFileInStorage(any(), eq("objects/new"));
+        ArgumentCaptor<List<UploadedObject>> uploaded = ArgumentCaptor.forClass(List.class);
+        verify(resourcePersistenceService).updateResourcesInfo(uploaded.capture(), any(), any(), anyLong());
+        assertTrue(uploaded.getValue().get(0).isStored());
+        assertEquals(TEST_DIGEST, uploaded.getValue().get(0).getDigest());
+    }
+
+    private void runUploadsOnNewThreads() {
+        doAnswer(invocation -> {
+            new Thread(invocation.<Runnable>getArgument(0)).start();
+            return null;
+        }).when(uploadTaskExecutor).execute(any(Runnable.class));
+    }
+
+    private static MultipartFile file(String name, int size) {
+        return new MockMultipartFile("file", name, "text/plain", new byte[size]);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.cloudfilestorage.service;
+
+import com.example.cloudfilestorage.core.service.MinioService;
+import com.example.cloudfilestorage.core.service.ResourcePersistenceService;
+import com.example.cloudfilestorage.core.service.StorageLayoutService;
+import com.example.cloudfilestorage.core.service.TrashPurgeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrashPurgeServiceTest {
+
+    @Mock
+    private ResourcePersistenceService resourcePersistenceService;
+
+    @Mock
+    private MinioService minioService;
+
+    @Mock
+    private StorageLayoutService storageLayoutService;
+
+    @InjectMocks
+    private TrashPurgeService trashPurgeService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(trashPurgeService, "retention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(trashPurgeService, "purgeBatchSize", 2);
+        ReflectionTestUtils.setField(trashPurgeService, "purgeMaxBatches", 10);
+
+        lenient().when(storageLayoutService.isVirtualPaths()).thenReturn(true);
+    }
+
+    @Test
+    void objectsAreDeletedAfterPurgeCommitsTest() {
+        when(resourcePersistenceService.purgeDeleted(any(), eq(2))).thenReturn(2, 1);
+        when(resourcePersistenceService.getPendingObjectDeletions(0, 2))
+                .thenReturn(List.of("objects/a", "objects/b"), List.of("objects/c"));
+
+        trashPurgeService.purgeExpiredResources();
+
+        InOrder inOrder = inOrder(resourcePersistenceService, minioService);
+        inOrder.verify(resourcePersistenceService, times(2)).purgeDeleted(any(), eq(2));
+        inOrder.verify(minioService).tryDeleteObjectsInStorage(List.of("objects/a", "objects/b"));
+        inOrder.verify(resourcePersistenceService).completeObjectDeletions(List.of("objects/a", "objects/b"));
+        inOrder.verify(minioService).tryDeleteObjectsInStorage(List.of("objects/c"));
+        inOrder.verify(resourcePersistenceService).completeObjectDeletions(List.of("objects/c"));
+    }
+
+    @Test
+    void purgeUsesRetentionWindowTest() {
+        Instant before = Instant.now();
+
+        trashPurgeService.purgeExpiredResources();
+
+        verify(resourcePersistenceService).purgeDeleted(
+                argThat(deletedBefore -> !deletedBefore.isAfter(Instant.now().minus(Duration.ofDays(7)))
+                        && !deletedBefore.isBefore(before.minus(Duration.ofDays(7)))),
+                eq(2)
+        );
+        verify(minioService, never()).tryDeleteObjectsInStorage(anyList());
+    }
+
+    @Test
+    void failedKeysStayPendingAndLaterBatchesContinueTest() {
+        when(resourcePersistenceService.getPendingObjectDeletions(0, 2)).thenReturn(List.of("objects/a", "objects/b"));
+        when(resourcePersistenceService.getPendingObjectDeletions(1, 2)).thenReturn(List.of("objects/c"));
+        when(minioService.tryDeleteObjectsInStorage(List.of("objects/a", "objects/b")))
+                .thenReturn(Map.of("objects/b", "Ошибка удаления"));
+        when(minioService.tryDeleteObjectsInStorage(List.of("objects/c"))).thenReturn(Map.of());
+
+        trashPurgeService.purgeExpiredResources();
+
+        InOrder inOrder = inOrder(resourcePersistenceService, minioService);
+        inOrder.verify(resourcePersistenceService).completeObjectDeletions(List.of("objects/a"));
+        inOrder.verify(resourcePersistenceService).getPendingObjectDeletions(1, 2);
+        inOrder.verify(resourcePersistenceService).completeObjectDeletions(List.of("objects/c"));
+        verify(resourcePersistenceService, never()).completeObjectDeletions(argThat(keys -> keys.contains("objects/b")));
+    }
+
+    @Test
+    void legacyLayoutIsNotPurgedTest() {
+        when(storageLayoutService.isVirtualPaths()).thenReturn(false);
+
+        trashPurgeService.purgeExpiredResources();
+
+        verify(resourcePersistenceService, never()).purgeDeleted(any(), anyInt());
+        verifyNoInteractions(minioService);
+    }
+}
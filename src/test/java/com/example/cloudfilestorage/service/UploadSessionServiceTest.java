@@ -0,0 +1,277 @@
+package com.example.cloudfilestorage.service;
+
+import com.example.cloudfilestorage.api.dto.UploadSessionResponse;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.InvalidResourceOperationException;
+import com.example.cloudfilestorage.core.exception.ResourceException.UploadSessionNotFoundException;
+import com.example.cloudfilestorage.core.model.PersistedUploads;
+import com.example.cloudfilestorage.core.model.UploadSession;
+import com.example.cloudfilestorage.core.model.UploadedPart;
+import com.example.cloudfilestorage.core.model.User;
+import com.example.cloudfilestorage.core.service.*;
+import io.minio.messages.Part;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UploadSessionServiceTest {
+
+    private static final Duration SESSION_TTL = Duration.ofHours(24);
+    private static final String SESSION_ID = "session-1";
+    private static final String SESSION_KEY = "upload-session:session-1";
+    private static final String PARTS_KEY = "upload-session:session-1:parts";
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private MinioService minioService;
+
+    @Mock
+    private ResourcePersistenceService resourcePersistenceService;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private StorageLayoutService storageLayoutService;
+
+    @Mock
+    private DirectoryCacheService directoryCacheService;
+
+    @Mock
+    private QuotaService quotaService;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @InjectMocks
+    private UploadSessionService uploadSessionService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(uploadSessionService, "partSize", DataSize.ofMegabytes(8));
+        ReflectionTestUtils.setField(uploadSessionService, "maxPartSize", DataSize.ofBytes(16));
+        ReflectionTestUtils.setField(uploadSessionService, "sessionTtl", SESSION_TTL);
+
+        user = new User("testuser", "encodedPassword");
+        user.setId(1);
+
+        lenient().when(userService.getCurrentUser()).thenReturn(user);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    }
+
+    @Test
+    void initiateSessionTest() {
+        when(minioService.isFileExist("user-1-files/docs/file.txt")).thenReturn(false);
+        when(storageLayoutService.newObjectKey("user-1-files/docs/file.txt")).thenReturn("user-1-files/docs/file.txt");
+        when(minioService.initiateMultipartUpload("user-1-files/docs/file.txt", "text/plain")).thenReturn("upload-1");
+
+        UploadSessionResponse response = uploadSessionService.initiateSession("docs/", "file.txt", "text/plain");
+
+        assertEquals("docs/file.txt", response.getPath());
+        assertTrue(response.getUploadedParts().isEmpty());
+
+        ArgumentCaptor<UploadSession> session = ArgumentCaptor.forClass(UploadSession.class);
+        verify(valueOperations).set(eq("upload-session:" + response.getSessionId()), session.capture(), eq(SESSION_TTL));
+        assertEquals("upload-1", session.getValue().getUploadId());
+        assertEquals(1, session.getValue().getOwnerId());
+        verify(hashOperations).put("upload-sessions", response.getSessionId(), session.getValue());
+    }
+
+    @Test
+    void initiateSessionForExistFileTestToException() {
+        when(minioService.isFileExist("user-1-files/file.txt")).thenReturn(true);
+
+        assertThrows(FileAlreadyExistException.class, () ->
+                uploadSessionService.initiateSession("", "file.txt", null)
+        );
+
+        verify(minioService, never()).initiateMultipartUpload(anyString(), any());
+        verifyNoInteractions(valueOperations);
+    }
+
+    @Test
+    void uploadPartRefreshesTtlTest() {
+        when(valueOperations.get(SESSION_KEY)).thenReturn(session(1));
+        when(minioService.uploadPart(eq("objects/key"), eq("upload-1"), eq(2), any())).thenReturn("etag-2");
+
+        UploadedPart part = uploadSessionService.uploadPart(SESSION_ID, 2, new ByteArrayInputStream(new byte[10]));
+
+        assertEquals(new UploadedPart(2, "etag-2", 10), part);
+        verify(hashOperations).put(PARTS_KEY, "2", part);
+        verify(redisTemplate).expire(PARTS_KEY, SESSION_TTL);
+        verify(redisTemplate).expire(SESSION_KEY, SESSION_TTL);
+    }
+
+    @Test
+    void uploadInvalidPartTestToException() {
+        when(valueOperations.get(SESSION_KEY)).thenReturn(session(1));
+
+        assertThrows(InvalidResourceOperationException.class, () ->
+                uploadSessionService.uploadPart(SESSION_ID, 0, new ByteArrayInputStream(new byte[10]))
+        );
+        assertThrows(InvalidResourceOperationException.class, () ->
+                uploadSessionService.uploadPart(SESSION_ID, 1, new ByteArrayInputStream(new byte[17]))
+        );
+        assertThrows(InvalidResourceOperationException.class, () ->
+                uploadSessionService.uploadPart(SESSION_ID, 1, new ByteArrayInputStream(new byte[0]))
+        );
+
+        verify(minioService, never()).uploadPart(anyString(), anyString(), anyInt(), any());
+    }
+
+    @Test
+    void foreignSessionTestToException() {
+        when(valueOperations.get(SESSION_KEY)).thenReturn(session(2));
+
+        assertThrows(UploadSessionNotFoundException.class, () -> uploadSessionService.getSessionInfo(SESSION_ID));
+        assertThrows(UploadSessionNotFoundException.class, () ->
+                uploadSessionService.uploadPart(SESSION_ID, 1, new ByteArrayInputStream(new byte[10]))
+        );
+        assertThrows(UploadSessionNotFoundException.class, () -> uploadSessionService.completeSession(SESSION_ID));
+        assertThrows(UploadSessionNotFoundException.class, () -> uploadSessionService.abortSession(SESSION_ID));
+
+        verifyNoInteractions(minioService);
+    }
+
+    @Test
+    void completeSessionTest() {
+        when(valueOperations.get(SESSION_KEY)).thenReturn(session(1));
+        when(hashOperations.values(PARTS_KEY)).thenReturn(List.of(
+                new UploadedPart(2, "etag-2", 4), new UploadedPart(1, "etag-1", 16)
+        ));
+        when(storageLayoutService.isVirtualPaths()).thenReturn(true);
+        when(quotaService.reserve(user, 20)).thenReturn(20L);
+        when(resourcePersistenceService.updateResourcesInfo(anyList(), eq(user), any(), eq(20L))).thenReturn(new PersistedUploads(List.of(), List.of()));
+
+        uploadSessionService.completeSession(SESSION_ID);
+
+        verify(quotaService, never()).release(any(), anyLong());
+        ArgumentCaptor<List<Part>> parts = ArgumentCaptor.forClass(List.class);
+        verify(minioService).completeMultipartUpload(eq("objects/key"), eq("upload-1"), parts.capture(), eq(false));
+        assertEquals(List.of(1, 2), parts.getValue().stream().map(Part::partNumber).toList());
+        assertEquals(List.of("etag-1", "etag-2"), parts.getValue().stream().map(Part::etag).toList());
+
+        verify(redisTemplate).delete(List.of(SESSION_KEY, PARTS_KEY));
+        verify(hashOperations).delete("upload-sessions", SESSION_ID);
+        verify(directoryCacheService).invalidate("user-1-files/docs/file.txt");
+    }
+
+    @Test
+    void completeSessionOntoExistingFileTestToException() {
+        when(valueOperations.get(SESSION_KEY)).thenReturn(session(1));
+        when(hashOperations.values(PARTS_KEY)).thenReturn(List.of(new UploadedPart(1, "etag-1", 16)));
+        when(storageLayoutService.isVirtualPaths()).thenReturn(true);
+        when(resourcePersistenceService.isResourceExist("user-1-files/docs/file.txt")).thenReturn(true);
+
+        assertThrows(FileAlreadyExistException.class, () -> uploadSessionService.completeSession(SESSION_ID));
+
+        verify(minioService, never()).completeMultipartUpload(anyString(), anyString(), anyList(), anyBoolean());
+        verify(quotaService, never()).reserve(any(), anyLong());
+    }
+
+    @Test
+    void completeSessionRemovesObjectOfPathTakenConcurrentlyTestToException() {
+        when(valueOperations.get(SESSION_KEY)).thenReturn(session(1));
+        when(hashOperations.values(PARTS_KEY)).thenReturn(List.of(new UploadedPart(1, "etag-1", 16)));
+        when(storageLayoutService.isVirtualPaths()).thenReturn(true);
+        when(resourcePersistenceService.updateResourcesInfo(anyList(), eq(user), any(), anyLong())).thenAnswer(invocation -> {
+            invocation.<Consumer<List<String>>>getArgument(2).accept(List.of("objects/key"));
+            return new PersistedUploads(List.of(), List.of("user-1-files/docs/file.txt"));
+        });
+
+        assertThrows(FileAlreadyExistException.class, () -> uploadSessionService.completeSession(SESSION_ID));
+
+        verify(minioService).deleteObjectsInStorage(List.of("objects/key"));
+        verify(redisTemplate).delete(List.of(SESSION_KEY, PARTS_KEY));
+        verify(directoryCacheService, never()).invalidate(anyString());
+    }
+
+    @Test
+    void completeSessionWithoutPartsTestToException() {
+        when(valueOperations.get(SESSION_KEY)).thenReturn(session(1));
+        when(hashOperations.values(PARTS_KEY)).thenReturn(List.of());
+
+        assertThrows(InvalidResourceOperationException.class, () -> uploadSessionService.completeSession(SESSION_ID));
+
+        verify(minioService, never()).completeMultipartUpload(anyString(), anyString(), anyList(), anyBoolean());
+    }
+
+    @Test
+    void abortSessionTest() {
+        when(valueOperations.get(SESSION_KEY)).thenReturn(session(1));
+
+        uploadSessionService.abortSession(SESSION_ID);
+
+        verify(minioService).abortMultipartUpload("objects/key", "upload-1");
+        verify(redisTemplate).delete(List.of(SESSION_KEY, PARTS_KEY));
+        verify(hashOperations).delete("upload-sessions", SESSION_ID);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void abortExpiredSessionsTest() {
+        UploadSession expired = session(1);
+        UploadSession active = session(1);
+        active.setId("session-2");
+        active.setUploadId("upload-2");
+
+        Cursor<Map.Entry<Object, Object>> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true, true, false);
+        when(cursor.next()).thenReturn(Map.entry(SESSION_ID, expired), Map.entry("session-2", active));
+        when(hashOperations.scan(eq("upload-sessions"), any())).thenReturn(cursor);
+        when(redisTemplate.hasKey(SESSION_KEY)).thenReturn(false);
+        when(redisTemplate.hasKey("upload-session:session-2")).thenReturn(true);
+
+        uploadSessionService.abortExpiredSessions();
+
+        verify(minioService).abortMultipartUpload("objects/key", "upload-1");
+        verify(minioService, never()).abortMultipartUpload("objects/key", "upload-2");
+        verify(redisTemplate).delete(PARTS_KEY);
+        verify(hashOperations).delete("upload-sessions", SESSION_ID);
+        verify(hashOperations, never()).delete("upload-sessions", "session-2");
+        verify(cursor).close();
+    }
+
+    private UploadSession session(long ownerId) {
+        return UploadSession.builder()
+                .id(SESSION_ID)
+                .uploadId("upload-1")
+                .objectName("user-1-files/docs/file.txt")
+                .objectKey("objects/key")
+                .ownerId(ownerId)
+                .createdAt(System.currentTimeMillis())
+                .build();
+    }
+}
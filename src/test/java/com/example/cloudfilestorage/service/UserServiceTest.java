@@ -1,21 +1,27 @@
 package com.example.cloudfilestorage.service;
 
 import com.example.cloudfilestorage.core.exception.AuthException.UserAlreadyExistsException;
+import com.example.cloudfilestorage.core.exception.AuthException.UserNotFoundException;
 import com.example.cloudfilestorage.core.model.User;
 import com.example.cloudfilestorage.core.repository.UserRepository;
 import com.example.cloudfilestorage.core.service.UserService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -28,14 +34,20 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
-    @InjectMocks
     private UserService userService;
 
     private User user;
 
     @BeforeEach
     void setUp() {
+        userService = new UserService(userRepository, passwordEncoder, 100, Duration.ofMinutes(10));
         user = new User("testuser", "encodedPassword");
+        user.setId(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -67,4 +79,51 @@ public class UserServiceTest {
         verify(passwordEncoder, never()).encode(anyString());
         verify(userRepository, never()).save(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void authenticatedUserPrincipalSkipsLookupTest() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        authenticate(userService.loadUserByUsername("testuser"));
+
+        assertSame(user, userService.getCurrentUser());
+
+        verify(userRepository, times(1)).findByUsername("testuser");
+        verify(userRepository).getReferenceById(1L);
+    }
+
+    @Test
+    void legacyPrincipalIsResolvedOnceThroughCacheTest() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        authenticate(org.springframework.security.core.userdetails.User.withUsername("testuser")
+                .password("encodedPassword")
+                .roles("USER")
+                .build());
+
+        assertSame(user, userService.getCurrentUser());
+        assertSame(user, userService.getCurrentUser());
+
+        verify(userRepository, times(1)).findByUsername("testuser");
+        verify(userRepository, times(2)).getReferenceById(1L);
+    }
+
+    @Test
+    void unknownLegacyPrincipalTestToException() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+        authenticate(org.springframework.security.core.userdetails.User.withUsername("ghost")
+                .password("encodedPassword")
+                .roles("USER")
+                .build());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getCurrentUser());
+
+        verify(userRepository, never()).getReferenceById(anyLong());
+    }
+
+    private static void authenticate(UserDetails principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())
+        );
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.cloudfilestorage.storage;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
+import com.example.cloudfilestorage.core.model.StoredObject;
+import com.example.cloudfilestorage.core.storage.FileSystemStorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemStorageBackendTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemStorageBackend storageBackend;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storageBackend = new FileSystemStorageBackend(root);
+    }
+
+    @Test
+    void traversalKeysTestToException() {
+        putText("user-2-files/secret.txt", "Sekretnyi fail.");
+
+        List<String> keys = List.of(
+                "user-1-files/../user-2-files/secret.txt",
+                "user-1-files/./secret.txt",
+                "user-1-files//secret.txt",
+                "../secret.txt",
+                "user-1-files/..",
+                ".tmp/object.txt",
+                "user-1-files/.folder-marker"
+        );
+
+        for (String key : keys) {
+            assertThrows(FailedResourceOperationsException.class, () -> storageBackend.get(key), key);
+            assertThrows(FailedResourceOperationsException.class, () -> storageBackend.stat(key), key);
+            assertThrows(FailedResourceOperationsException.class, () -> putText(key, "Perezapis."), key);
+            assertEquals(1, storageBackend.delete(List.of(key)).size(), key);
+        }
+        assertThrows(FailedResourceOperationsException.class, () ->
+                storageBackend.list("user-1-files/../user-2-files/", null, true)
+        );
+
+        assertEquals("Sekretnyi fail.", readText("user-2-files/secret.txt"));
+    }
+
+    @Test
+    void emptyFolderCreateListDeleteTest() {
+        storageBackend.put("user-1-files/folder/", InputStream.nullInputStream(), 0, null, false);
+
+        assertEquals(List.of("user-1-files/folder/"), listKeys("user-1-files/", true));
+        assertEquals(List.of("user-1-files/folder/"), listKeys("user-1-files/", false));
+        assertEquals(List.of("user-1-files/folder/"), listKeys("user-1-files/folder/", false));
+
+        List<String> keys = listKeys("user-1-files/folder/", true);
+        assertTrue(storageBackend.delete(keys).isEmpty());
+
+        assertTrue(listKeys("user-1-files/", true).isEmpty());
+        assertFalse(Files.exists(root.resolve("user-1-files/folder")));
+    }
+
+    @Test
+    void recursiveListIsSortedAndStartsAfterKeyTest() {
+        storageBackend.put("user-1-files/a/", InputStream.nullInputStream(), 0, null, false);
+        putText("user-1-files/a/b/c.txt", "c");
+        putText("user-1-files/a-b.txt", "a-b");
+        putText("user-1-files/a/x.txt", "x");
+        putText("user-1-files/a0.txt", "a0");
+
+        assertEquals(
+                List.of(
+                        "user-1-files/a-b.txt",
+                        "user-1-files/a/",
+                        "user-1-files/a/b/c.txt",
+                        "user-1-files/a/x.txt",
+                        "user-1-files/a0.txt"
+                ),
+                listKeys("user-1-files/", true)
+        );
+        assertEquals(
+                List.of("user-1-files/a/x.txt", "user-1-files/a0.txt"),
+                listKeys("user-1-files/", "user-1-files/a/b/c.txt", true)
+        );
+        assertEquals(
+                List.of("user-1-files/a-b.txt", "user-1-files/a/", "user-1-files/a0.txt"),
+                listKeys("user-1-files/", false)
+        );
+        assertEquals(List.of("user-1-files/a-b.txt"), listKeys("user-1-files/a-", true));
+    }
+
+    @Test
+    void putIfAbsentTestToException() {
+        storageBackend.put("user-1-files/file.txt", text("Pervaya versiya."), -1, null, true);
+
+        assertThrows(FileAlreadyExistException.class, () ->
+                storageBackend.put("user-1-files/file.txt", text("Vtoraya versiya."), -1, null, true)
+        );
+        assertEquals("Pervaya versiya.", readText("user-1-files/file.txt"));
+    }
+
+    @Test
+    void rangeGetTest() throws Exception {
+        putText("user-1-files/file.txt", "0123456789");
+
+        try (InputStream inputStream = storageBackend.get("user-1-files/file.txt", 2, 5)) {
+            assertEquals("23456", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertThrows(FileDoesNotExistException.class, () -> storageBackend.get("user-1-files/missing.txt", 0, 1));
+    }
+
+    @Test
+    void localFileTest() {
+        putText("user-1-files/file.txt", "0123456789");
+        storageBackend.put("user-1-files/folder/", InputStream.nullInputStream(), 0, null, false);
+
+        assertEquals(
+                Optional.of(root.resolve("user-1-files/file.txt").toAbsolutePath().normalize()),
+                storageBackend.localFile("user-1-files/file.txt")
+        );
+        assertTrue(storageBackend.localFile("user-1-files/missing.txt").isEmpty());
+        assertThrows(FailedResourceOperationsException.class, () -> storageBackend.localFile("user-1-files/folder/"));
+        assertThrows(FailedResourceOperationsException.class, () ->
+                storageBackend.localFile("user-1-files/../user-2-files/file.txt")
+        );
+    }
+
+    private void putText(String key, String content) {
+        storageBackend.put(key, text(content), -1, null, false);
+    }
+
+    private String readText(String key) {
+        try (InputStream inputStream = storageBackend.get(key)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private List<String> listKeys(String prefix, boolean recursive) {
+        return listKeys(prefix, null, recursive);
+    }
+
+    private List<String> listKeys(String prefix, String startAfter, boolean recursive) {
+        List<String> keys = new ArrayList<>();
+        Iterator<StoredObject> objects = storageBackend.list(prefix, startAfter, recursive);
+        objects.forEachRemaining(object -> keys.add(object.getKey()));
+        return keys;
+    }
+
+    private static InputStream text(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.cloudfilestorage.storage;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
+import com.example.cloudfilestorage.core.storage.MinioStorageBackend;
+import com.example.cloudfilestorage.core.utilities.MultipartMinioClient;
+import io.minio.MinioClient;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.ErrorResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MinioStorageBackendTest {
+
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(20);
+
+    @Mock
+    private MinioClient minioClient;
+
+    @Mock
+    private MultipartMinioClient multipartMinioClient;
+
+    @InjectMocks
+    private MinioStorageBackend storageBackend;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(storageBackend, "userFilesBucketName", "user-files");
+        ReflectionTestUtils.setField(storageBackend, "retryMaxAttempts", 3);
+        ReflectionTestUtils.setField(storageBackend, "retryBackoff", RETRY_BACKOFF);
+    }
+
+    @Test
+    void transientCopyFailuresAreRetriedWithBackoffTest() throws Exception {
+        ErrorResponseException slowDown = errorResponse("SlowDown");
+        when(minioClient.copyObject(any()))
+                .thenThrow(new IOException("Соединение сброшено"))
+                .thenThrow(slowDown)
+                .thenReturn(null);
+
+        long start = System.nanoTime();
+        storageBackend.copy("user-1-files/a.txt", "user-1-files/b.txt");
+        long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        verify(minioClient, times(3)).copyObject(any());
+        assertTrue(elapsed >= RETRY_BACKOFF.toMillis() * 3, "Ожидание между попытками должно удваиваться");
+    }
+
+    @Test
+    void copyFailsAfterLastAttemptTestToException() throws Exception {
+        when(minioClient.copyObject(any())).thenThrow(new IOException("Соединение сброшено"));
+
+        assertThrows(FailedResourceOperationsException.class, () ->
+                storageBackend.copy("user-1-files/a.txt", "user-1-files/b.txt")
+        );
+
+        verify(minioClient, times(3)).copyObject(any());
+    }
+
+    @Test
+    void missingSourceIsNotRetriedTestToException() throws Exception {
+        ErrorResponseException noSuchKey = errorResponse("NoSuchKey");
+        when(minioClient.copyObject(any())).thenThrow(noSuchKey);
+
+        assertThrows(FileDoesNotExistException.class, () ->
+                storageBackend.copy("user-1-files/a.txt", "user-1-files/b.txt")
+        );
+
+        verify(minioClient, times(1)).copyObject(any());
+    }
+
+    @Test
+    void permanentErrorIsNotRetriedTestToException() throws Exception {
+        ErrorResponseException accessDenied = errorResponse("AccessDenied");
+        when(minioClient.copyObject(any())).thenThrow(accessDenied);
+
+        assertThrows(FailedResourceOperationsException.class, () ->
+                storageBackend.copy("user-1-files/a.txt", "user-1-files/b.txt")
+        );
+
+        verify(minioClient, times(1)).copyObject(any());
+    }
+
+    private static ErrorResponseException errorResponse(String code) {
+        ErrorResponse errorResponse = mock(ErrorResponse.class);
+        lenient().when(errorResponse.code()).thenReturn(code);
+        ErrorResponseException exception = mock(ErrorResponseException.class);
+        lenient().when(exception.errorResponse()).thenReturn(errorResponse);
+        lenient().when(exception.getMessage()).thenReturn(code);
+        return exception;
+    }
+}
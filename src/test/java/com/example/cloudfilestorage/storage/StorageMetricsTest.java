@@ -0,0 +1,140 @@
+package com.example.cloudfilestorage.storage;
+
+import com.example.cloudfilestorage.core.exception.ResourceException.FailedResourceOperationsException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileAlreadyExistException;
+import com.example.cloudfilestorage.core.exception.ResourceException.FileDoesNotExistException;
+import com.example.cloudfilestorage.core.storage.StorageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.example.cloudfilestorage.core.storage.StorageMetrics.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StorageMetrics storageMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        storageMetrics = new StorageMetrics(meterRegistry);
+    }
+
+    @Test
+    void requestOutcomesAreTaggedTest() {
+        storageMetrics.record(STAT, () -> "stat");
+        storageMetrics.record(STAT, () -> "stat");
+        assertThrows(FileDoesNotExistException.class, () -> storageMetrics.record(STAT, () -> {
+            throw new FileDoesNotExistException("Файл не найден");
+        }));
+        assertThrows(FileAlreadyExistException.class, () -> storageMetrics.run(PUT, () -> {
+            throw new FileAlreadyExistException();
+        }));
+        assertThrows(FailedResourceOperationsException.class, () -> storageMetrics.run(PUT, () -> {
+            throw new FailedResourceOperationsException("Ошибка хранилища");
+        }));
+
+        assertEquals(2, requestCount(STAT, "success"));
+        assertEquals(1, requestCount(STAT, "not_found"));
+        assertEquals(1, requestCount(PUT, "conflict"));
+        assertEquals(1, requestCount(PUT, "error"));
+        assertEquals(4, meterRegistry.find("storage.requests").timers().size());
+        assertEquals(0, meterRegistry.get("storage.requests.in.flight").tag("operation", STAT).gauge().value());
+    }
+
+    @Test
+    void unconsumedListIsRecordedTest() {
+        storageMetrics.recordList(() -> List.of("a", "b").iterator());
+
+        assertEquals(1, requestCount(LIST, "success"));
+        assertNull(meterRegistry.find("storage.objects").counter());
+    }
+
+    @Test
+    void consumedListCountsObjectsTest() {
+        Iterator<String> objects = storageMetrics.recordList(() -> List.of("a", "b").iterator());
+        objects.forEachRemaining(object -> { });
+
+        assertEquals(1, requestCount(LIST, "success"));
+        assertEquals(2, meterRegistry.get("storage.objects").tag("operation", LIST).counter().count());
+    }
+
+    @Test
+    void partiallyConsumedListCountsReadObjectsTest() {
+        Iterator<String> objects = storageMetrics.recordList(() -> List.of("a", "b", "c").iterator());
+        objects.next();
+        objects.next();
+
+        assertEquals(2, meterRegistry.get("storage.objects").tag("operation", LIST).counter().count());
+    }
+
+    @Test
+    void failedFirstPageTestToException() {
+        assertThrows(FailedResourceOperationsException.class, () ->
+                storageMetrics.recordList(() -> failingIterator(0))
+        );
+
+        assertEquals(1, requestCount(LIST, "error"));
+        assertNull(meterRegistry.find("storage.requests").tag("outcome", "success").timer());
+    }
+
+    @Test
+    void failedLaterPageTestToException() {
+        Iterator<String> objects = storageMetrics.recordList(() -> failingIterator(2));
+
+        assertEquals("0", objects.next());
+        assertEquals("1", objects.next());
+        assertThrows(FailedResourceOperationsException.class, objects::hasNext);
+
+        assertEquals(2, meterRegistry.get("storage.objects").tag("operation", LIST).counter().count());
+        assertEquals(1, requestCount(LIST, "success"));
+        assertEquals(1, requestCount(LIST, "error"));
+    }
+
+    @Test
+    void transferredBytesAreRecordedTest() throws Exception {
+        InputStream opened = storageMetrics.record(GET, () -> new ByteArrayInputStream(new byte[10]));
+        try (InputStream inputStream = storageMetrics.countBytes(GET, opened)) {
+            inputStream.readAllBytes();
+        }
+
+        assertEquals(1, meterRegistry.get("storage.bytes").tag("operation", GET).summary().count());
+        assertEquals(10, meterRegistry.get("storage.bytes").tag("operation", GET).summary().totalAmount());
+        assertEquals(1, requestCount(GET, "success"));
+    }
+
+    private long requestCount(String operation, String outcome) {
+        return meterRegistry.get("storage.requests")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    private static Iterator<String> failingIterator(int failAfter) {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public String next() {
+                if (index == failAfter) {
+                    throw new FailedResourceOperationsException("Ошибка получения страницы");
+                }
+                return String.valueOf(index++);
+            }
+        };
+    }
+}